@@ -0,0 +1,84 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.net.Uri;
+
+import androidx.exifinterface.media.ExifInterface;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A camera-style JPEG: pixels stored landscape with an EXIF tag saying "rotate 90".
+ */
+@RunWith(AndroidJUnit4.class)
+public class UploadPipelineOrientationTest {
+
+    @Test
+    public void sidewaysPhotoGetsUprightRenditions() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        File file = rotatedJpeg(context);
+        Uri uri = Uri.fromFile(file);
+
+        int orientation = UploadPipeline.readOrientation(context.getContentResolver(), uri, file);
+        assertEquals(ExifInterface.ORIENTATION_ROTATE_90, orientation);
+        assertTrue(UploadPipeline.isTransposed(orientation));
+
+        List<UploadPipeline.Encoded> renditions =
+                UploadPipeline.encodeRenditions(context.getContentResolver(), uri, 1200, 600, orientation);
+        assertEquals(1, renditions.size()); // 600 short edge: thumbnail only
+        UploadPipeline.Encoded thumb = renditions.get(0);
+        assertEquals(400, thumb.width);
+        assertEquals(800, thumb.height);
+
+        // Stored left half red, right half blue: upright, red is on top
+        Bitmap decoded = BitmapFactory.decodeByteArray(thumb.bytes, 0, thumb.bytes.length);
+        assertEquals(400, decoded.getWidth());
+        assertEquals(800, decoded.getHeight());
+        assertTrue(isRed(decoded.getPixel(200, 100)));
+        assertTrue(isBlue(decoded.getPixel(200, 700)));
+        file.delete();
+    }
+
+    private static File rotatedJpeg(Context context) throws IOException {
+        Bitmap raw = Bitmap.createBitmap(1200, 600, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(raw);
+        canvas.clipRect(0, 0, 600, 600);
+        canvas.drawColor(Color.RED);
+        canvas = new Canvas(raw);
+        canvas.clipRect(600, 0, 1200, 600);
+        canvas.drawColor(Color.BLUE);
+
+        File file = new File(context.getCacheDir(), "rotated.jpg");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            raw.compress(Bitmap.CompressFormat.JPEG, 95, out);
+        }
+        raw.recycle();
+        ExifInterface exif = new ExifInterface(file.getPath());
+        exif.setAttribute(ExifInterface.TAG_ORIENTATION, String.valueOf(ExifInterface.ORIENTATION_ROTATE_90));
+        exif.saveAttributes();
+        return file;
+    }
+
+    private static boolean isRed(int color) {
+        return Color.red(color) > 200 && Color.blue(color) < 60;
+    }
+
+    private static boolean isBlue(int color) {
+        return Color.blue(color) > 200 && Color.red(color) < 60;
+    }
+}
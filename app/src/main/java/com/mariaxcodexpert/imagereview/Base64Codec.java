@@ -0,0 +1,213 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Base64 decoding of legacy {@link ImageNode#LEGACY_IMAGE} payloads without the usual copies.
+ *
+ * Legacy uploads were written with Base64.DEFAULT, which breaks lines every 76 characters.
+ * Stripping that whitespace first costs a regex pass and a full copy of a multi-megabyte
+ * string, and the platform decoder copies the string into bytes again before decoding.
+ * This copies the characters a chunk at a time into a pooled per-thread buffer, skips
+ * whitespace as it goes, and writes either into one exact-size array or straight into the
+ * caller's buffer through {@link #decodingStream}. NO_WRAP input decodes the same way.
+ * Pure Java, so :benchmark compiles it too.
+ */
+public final class Base64Codec {
+
+    private static final int CHUNK_CHARS = 8 * 1024;
+    private static final byte INVALID = -1;
+    private static final byte WHITESPACE = -2;
+    private static final byte PAD = -3;
+    private static final byte[] SEXTETS = new byte[128];
+
+    static {
+        Arrays.fill(SEXTETS, INVALID);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) SEXTETS[alphabet.charAt(i)] = (byte) i;
+        SEXTETS['\n'] = WHITESPACE;
+        SEXTETS['\r'] = WHITESPACE;
+        SEXTETS['\t'] = WHITESPACE;
+        SEXTETS[' '] = WHITESPACE;
+        SEXTETS['='] = PAD;
+    }
+
+    private static final ThreadLocal<char[]> chunks = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[CHUNK_CHARS];
+        }
+    };
+
+    private Base64Codec() {}
+
+    /**
+     * Exact decoded size, counted without allocating
+     *
+     * @throws IllegalArgumentException if the input is not Base64
+     */
+    public static int decodedLength(String in) {
+        char[] chunk = chunks.get();
+        int significant = 0;
+        scan:
+        for (int pos = 0; pos < in.length(); pos += chunk.length) {
+            int count = Math.min(chunk.length, in.length() - pos);
+            in.getChars(pos, pos + count, chunk, 0);
+            for (int i = 0; i < count; i++) {
+                char c = chunk[i];
+                byte v = c < 128 ? SEXTETS[c] : INVALID;
+                if (v >= 0) {
+                    significant++;
+                } else if (v == PAD) {
+                    break scan;
+                } else if (v == INVALID) {
+                    throw invalid(c, pos + i);
+                }
+            }
+        }
+        if (significant % 4 == 1) throw new IllegalArgumentException("truncated Base64 input");
+        return significant / 4 * 3 + (significant % 4 == 0 ? 0 : significant % 4 - 1);
+    }
+
+    /**
+     * Decodes into a single array of exactly the decoded size
+     *
+     * @throws IllegalArgumentException if the input is not Base64
+     */
+    public static byte[] decode(String in) {
+        byte[] out = new byte[decodedLength(in)];
+        new Cursor(in).decode(out, 0, out.length);
+        return out;
+    }
+
+    /**
+     * Decodes lazily into whatever buffer the reader passes, e.g. straight into
+     * {@link DiskImageCache#putStream}; malformed input surfaces as an IOException
+     */
+    public static InputStream decodingStream(String in) {
+        return new InputStream() {
+            private final Cursor cursor = new Cursor(in);
+            private final byte[] group = new byte[3]; // a group that did not fit the last read
+            private int groupPos;
+            private int groupLen;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                int start = off;
+                int end = off + len;
+                try {
+                    while (off < end) {
+                        if (groupPos < groupLen) {
+                            b[off++] = group[groupPos++];
+                            continue;
+                        }
+                        int n = cursor.decode(b, off, end);
+                        if (n > 0) {
+                            off += n;
+                        } else if (cursor.done) {
+                            break;
+                        } else {
+                            groupLen = cursor.decode(group, 0, group.length);
+                            groupPos = 0;
+                        }
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e);
+                }
+                return off == start ? -1 : off - start;
+            }
+        };
+    }
+
+    private static IllegalArgumentException invalid(char c, int index) {
+        return new IllegalArgumentException("bad Base64 character 0x" + Integer.toHexString(c) + " at " + index);
+    }
+
+    /**
+     * Position in the input plus the bits of a group not yet written
+     */
+    private static final class Cursor {
+        private final String in;
+        private int pos;
+        private int bits;
+        private int count; // sextets in bits
+        boolean done;
+
+        Cursor(String in) {
+            this.in = in;
+        }
+
+        /**
+         * Writes as many bytes into dst[off, end) as fit without splitting a group
+         *
+         * @return bytes written; 0 with {@link #done} unset means a group needs more room
+         */
+        int decode(byte[] dst, int off, int end) {
+            char[] chunk = chunks.get();
+            int start = off;
+            while (!done) {
+                int available = Math.min(chunk.length, in.length() - pos);
+                if (available == 0) {
+                    if (!finish(dst, off, end)) break;
+                    off += Math.max(0, count - 1);
+                    count = 0;
+                    done = true;
+                    break;
+                }
+                in.getChars(pos, pos + available, chunk, 0);
+                int i = 0;
+                boolean full = false;
+                for (; i < available; i++) {
+                    char c = chunk[i];
+                    byte v = c < 128 ? SEXTETS[c] : INVALID;
+                    if (v < 0) {
+                        if (v == WHITESPACE) continue;
+                        if (v == INVALID) throw invalid(c, pos + i);
+                        // Padding only ever ends the payload
+                        i = in.length() - pos;
+                        break;
+                    }
+                    if (count == 3 && end - off < 3) {
+                        full = true;
+                        break;
+                    }
+                    bits = (bits << 6) | v;
+                    if (++count == 4) {
+                        dst[off++] = (byte) (bits >> 16);
+                        dst[off++] = (byte) (bits >> 8);
+                        dst[off++] = (byte) bits;
+                        bits = 0;
+                        count = 0;
+                    }
+                }
+                pos += i;
+                if (full) break;
+            }
+            return off - start;
+        }
+
+        /**
+         * Writes the trailing partial group, false if it does not fit
+         */
+        private boolean finish(byte[] dst, int off, int end) {
+            if (count == 1) throw new IllegalArgumentException("truncated Base64 input");
+            if (end - off < count - 1) return false;
+            if (count == 2) {
+                dst[off] = (byte) (bits >> 4);
+            } else if (count == 3) {
+                dst[off] = (byte) (bits >> 10);
+                dst[off + 1] = (byte) (bits >> 2);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Bounded, paged input for a {@link ConcurrentHybridImageSelector}.
+ * When the selector's queue drops below the low-water mark the feed pulls
+ * pages from its {@link Source} until the queue reaches the high-water mark,
+ * so a reviewer can walk an unbounded catalog with a constant-size window.
+ *
+ * Pages may arrive on any thread; they go straight into the selector's inbox from
+ * there, so parsing a page never runs on the main thread. The feed's own state and
+ * its {@link Listener} live on the callback executor (the main thread): call it there.
+ */
+public class CandidateFeed {
+
+    /**
+     * Paged data source; each call continues where the previous page ended
+     */
+    public interface Source {
+        /**
+         * Call back on any thread
+         */
+        void loadPage(int maxItems, PageCallback callback);
+    }
+
+    public interface PageCallback {
+        /**
+         * @param exhausted true if the source has nothing after this page
+         */
+        void onPage(List<HybridImageSelector.ImageData> page, boolean exhausted);
+
+        void onError(Exception e);
+    }
+
+    public interface Listener {
+        /**
+         * A page was applied or the source ran out; check the selector again
+         */
+        void onFeedChanged();
+
+        void onFeedError(Exception e);
+    }
+
+    private final ConcurrentHybridImageSelector selector;
+    private final Source source;
+    private final int lowWaterMark;
+    private final int highWaterMark;
+    private final Listener listener;
+    private final Executor callbackExecutor;
+
+    private boolean loading = false;
+    private boolean exhausted = false;
+    private volatile boolean closed = false;
+
+    /**
+     * @param callbackExecutor thread the feed is used on; page results are handed back there
+     */
+    public CandidateFeed(ConcurrentHybridImageSelector selector, Source source,
+                         int lowWaterMark, int highWaterMark, Listener listener,
+                         Executor callbackExecutor) {
+        this.selector = selector;
+        this.source = source;
+        this.highWaterMark = Math.max(1, highWaterMark);
+        this.lowWaterMark = Math.min(Math.max(1, lowWaterMark), this.highWaterMark);
+        this.listener = listener;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Starts loading if the queue is below the low-water mark; call after every consumed image
+     */
+    public void refill() {
+        if (selector.getQueueSize() < lowWaterMark) requestPage();
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * Ignores pages that arrive afterwards, e.g. once the screen is gone
+     */
+    public void close() {
+        closed = true;
+    }
+
+    private void requestPage() {
+        if (loading || exhausted || closed) return;
+        int room = highWaterMark - selector.getQueueSize();
+        if (room <= 0) return;
+
+        loading = true;
+        source.loadPage(room, new PageCallback() {
+            @Override
+            public void onPage(List<HybridImageSelector.ImageData> page, boolean sourceExhausted) {
+                if (closed) return;
+                selector.offerAll(page);
+                callbackExecutor.execute(() -> {
+                    if (closed) return;
+                    loading = false;
+                    exhausted = sourceExhausted;
+
+                    // Keep pulling until the high-water mark; filtered-out pages may add nothing
+                    if (!exhausted && selector.getQueueSize() < highWaterMark) requestPage();
+                    listener.onFeedChanged();
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callbackExecutor.execute(() -> {
+                    if (closed) return;
+                    loading = false;
+                    listener.onFeedError(e);
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,133 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe front for {@link HybridImageSelector}.
+ *
+ * Producers ({@link CandidateFeed} pages parsed off the main thread, review-count
+ * listeners) hand candidates and review-count changes to a lock-free inbox and never wait. Consumers drain the
+ * inbox into the wrapped selector under its monitor before each read; with a
+ * single UI-thread consumer that monitor is always uncontended. Each drain is
+ * capped so a burst from producers cannot stall a frame.
+ */
+public class ConcurrentHybridImageSelector {
+
+    private static final int MAX_DRAIN_PER_CALL = 256;
+
+    private final HybridImageSelector selector;
+    private final ConcurrentLinkedQueue<Object> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingImages = new AtomicInteger(); // candidates in the inbox, not review counts
+
+    public ConcurrentHybridImageSelector(HybridImageSelector selector) {
+        this.selector = selector;
+    }
+
+    // =====================
+    // Producer side (any thread, never blocks)
+    // =====================
+
+    /**
+     * Counted before it is queued: a consumer may drain it at once, and
+     * {@link #getQueueSize()} must never see the decrement first
+     */
+    public void offer(HybridImageSelector.ImageData image) {
+        pendingImages.incrementAndGet();
+        inbox.offer(image);
+    }
+
+    public void offerAll(List<HybridImageSelector.ImageData> images) {
+        for (HybridImageSelector.ImageData image : images) offer(image);
+    }
+
+    /**
+     * Queued behind any pending insert of the same image, so it is never lost
+     */
+    public void offerReviewCount(String imageId, int newCount) {
+        inbox.offer(new ReviewCountChange(imageId, newCount));
+    }
+
+    // =====================
+    // Consumer side
+    // =====================
+
+    public synchronized HybridImageSelector.ImageData peekNextImage() {
+        drain(MAX_DRAIN_PER_CALL);
+        HybridImageSelector.ImageData next = selector.peekNextImage();
+        if (next == null && drain(Integer.MAX_VALUE) > 0) next = selector.peekNextImage();
+        return next;
+    }
+
+    /**
+     * See {@link HybridImageSelector#peekNextImages(int)}
+     */
+    public synchronized List<HybridImageSelector.ImageData> peekNextImages(int count) {
+        drain(MAX_DRAIN_PER_CALL);
+        List<HybridImageSelector.ImageData> next = selector.peekNextImages(count);
+        if (next.size() < count && drain(Integer.MAX_VALUE) > 0) next = selector.peekNextImages(count);
+        return next;
+    }
+
+    /**
+     * Atomically takes the next image; concurrent consumers never receive the same one
+     */
+    public synchronized HybridImageSelector.ImageData getNextImage() {
+        drain(MAX_DRAIN_PER_CALL);
+        HybridImageSelector.ImageData next = selector.getNextImage();
+        if (next == null && drain(Integer.MAX_VALUE) > 0) next = selector.getNextImage();
+        return next;
+    }
+
+    public synchronized void markImageInteracted(HybridImageSelector.ImageData image) {
+        selector.markImageInteracted(image);
+    }
+
+    public synchronized void skipImage(HybridImageSelector.ImageData image) {
+        selector.skipImage(image);
+    }
+
+    /**
+     * Eligible images in the selector plus candidates still in the inbox. Drains first, so
+     * duplicates and ineligible images already delivered no longer count; queued review-count
+     * changes never do.
+     */
+    public synchronized int getQueueSize() {
+        drain(MAX_DRAIN_PER_CALL);
+        return selector.getQueueSize() + pendingImages.get();
+    }
+
+    public synchronized int getPoolSize() {
+        return selector.getPoolSize();
+    }
+
+    /**
+     * @return number of inbox entries applied
+     */
+    private int drain(int limit) {
+        int drained = 0;
+        Object item;
+        while (drained < limit && (item = inbox.poll()) != null) {
+            drained++;
+            if (item instanceof HybridImageSelector.ImageData) {
+                pendingImages.decrementAndGet();
+                selector.addImage((HybridImageSelector.ImageData) item);
+            } else {
+                ReviewCountChange change = (ReviewCountChange) item;
+                selector.updateReviewCount(change.imageId, change.newCount);
+            }
+        }
+        return drained;
+    }
+
+    private static class ReviewCountChange {
+        final String imageId;
+        final int newCount;
+
+        ReviewCountChange(String imageId, int newCount) {
+            this.imageId = imageId;
+            this.newCount = newCount;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded LRU of decoded image bytes under the app cache dir, keyed by imageId.
+ *
+ * Writes go to a temp file that is synced and renamed into place before a CLEAN
+ * line is appended to the journal, so a crash never leaves a half-written entry
+ * visible. Only the rename and the index update hold the lock; the data write and
+ * fsync happen before it, and journal lines are written on the cache's executor in
+ * the order they were recorded. On open the journal is replayed to rebuild LRU order;
+ * files the journal does not vouch for are deleted. Reads are memory-mapped.
+ */
+public class DiskImageCache {
+
+    private static final String TAG = "DiskImageCache";
+    private static final String JOURNAL = "journal";
+    private static final String JOURNAL_TMP = "journal.tmp";
+    private static final String CLEAN = "CLEAN";
+    private static final String REMOVE = "REMOVE";
+    private static final String READ = "READ";
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final int COMPACT_AFTER_OPS = 2000;
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private static DiskImageCache instance;
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private static final AtomicLong tempIds = new AtomicLong();
+
+    private final File dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true); // access order
+    private long totalBytes = 0;
+    private int redundantOps = 0;
+    private Writer journal; // writer thread only
+
+    DiskImageCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        open();
+    }
+
+    public static synchronized DiskImageCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new DiskImageCache(new File(context.getCacheDir(), "images"), DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    public synchronized boolean contains(String key) {
+        return key != null && entries.containsKey(safeName(key));
+    }
+
+    /**
+     * Cached file for loaders that take a File (Glide maps it itself); null on miss
+     */
+    public synchronized File getFile(String key) {
+        if (key == null) return null;
+        String name = safeName(key);
+        if (entries.get(name) == null) return null;
+        File file = new File(dir, name);
+        if (!file.exists()) {
+            drop(name);
+            return null;
+        }
+        appendJournal(READ, name, -1);
+        return file;
+    }
+
+    /**
+     * Read-only memory-mapped view of the cached bytes; null on miss
+     */
+    public ByteBuffer getMapped(String key) {
+        File file = getFile(key);
+        if (file == null) return null;
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            Log.e(TAG, "map failed for " + key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes and syncs the bytes without the cache lock; the entry becomes visible
+     * only once complete
+     */
+    public void put(String key, byte[] data) {
+        if (key == null || data == null || data.length > maxBytes) return;
+        String name = safeName(key);
+        File tmp = tempFile(name);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "write failed for " + key, e);
+            tmp.delete();
+            return;
+        }
+        commit(name, tmp, data.length);
+    }
+
+    /**
+     * Streams a new entry in through a {@link #STREAM_BUFFER_BYTES} buffer, so large images
+     * are never held in memory. The copy runs on the caller's thread without the cache
+     * lock; the entry becomes visible only once complete. Closes {@code in}.
+     *
+     * @return true if the entry was cached
+     */
+    public boolean putStream(String key, InputStream in) {
+        if (key == null || in == null) return false;
+        String name = safeName(key);
+        File part = tempFile(name);
+        long written = 0;
+        try (InputStream source = in; FileOutputStream out = new FileOutputStream(part)) {
+            byte[] buffer = new byte[STREAM_BUFFER_BYTES];
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                written += read;
+                if (written > maxBytes) break;
+                out.write(buffer, 0, read);
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            Log.e(TAG, "stream write failed for " + key, e);
+            part.delete();
+            return false;
+        }
+        if (written > maxBytes) {
+            part.delete();
+            return false;
+        }
+        return commit(name, part, written);
+    }
+
+    /**
+     * Unique per write, so concurrent puts of one key never share a temp file;
+     * leftovers are not in the journal and are deleted on the next open
+     */
+    private File tempFile(String name) {
+        return new File(dir, name + "." + tempIds.incrementAndGet() + ".tmp");
+    }
+
+    /**
+     * Renames a complete temp file into place and records it
+     */
+    private synchronized boolean commit(String name, File tmp, long length) {
+        if (!tmp.renameTo(new File(dir, name))) {
+            tmp.delete();
+            return false;
+        }
+
+        Long previous = entries.put(name, length);
+        if (previous != null) totalBytes -= previous;
+        totalBytes += length;
+        appendJournal(CLEAN, name, length);
+        trimToSize();
+        return true;
+    }
+
+    /**
+     * put() on the cache's writer thread, for callers on the main thread
+     */
+    public void putAsync(String key, byte[] data) {
+        writer.execute(() -> put(key, data));
+    }
+
+    public synchronized void remove(String key) {
+        if (key != null) drop(safeName(key));
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            new File(dir, entry.getKey()).delete();
+            appendJournal(REMOVE, entry.getKey(), -1);
+        }
+    }
+
+    private void drop(String name) {
+        Long size = entries.remove(name);
+        if (size == null) return;
+        totalBytes -= size;
+        new File(dir, name).delete();
+        appendJournal(REMOVE, name, -1);
+    }
+
+    // =====================
+    // Journal
+    // =====================
+
+    private void open() {
+        if (!dir.exists() && !dir.mkdirs()) Log.e(TAG, "cannot create " + dir);
+
+        File journalFile = new File(dir, JOURNAL);
+        if (journalFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+                String line;
+                while ((line = reader.readLine()) != null) replay(line);
+            } catch (IOException e) {
+                Log.e(TAG, "journal unreadable, starting empty", e);
+                entries.clear();
+            }
+        }
+
+        // Keep only files the journal vouches for
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.equals(JOURNAL) || name.equals(JOURNAL_TMP)) continue;
+                if (!entries.containsKey(name)) file.delete();
+            }
+        }
+        totalBytes = 0;
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (new File(dir, entry.getKey()).length() != entry.getValue()) {
+                new File(dir, entry.getKey()).delete();
+                it.remove();
+            } else {
+                totalBytes += entry.getValue();
+            }
+        }
+        compactJournal();
+        trimToSize();
+    }
+
+    private void replay(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length < 2) return;
+        if (CLEAN.equals(parts[0]) && parts.length == 3) {
+            try {
+                entries.put(parts[1], Long.parseLong(parts[2]));
+            } catch (NumberFormatException ignored) {}
+        } else if (REMOVE.equals(parts[0])) {
+            entries.remove(parts[1]);
+        } else if (READ.equals(parts[0])) {
+            entries.get(parts[1]); // bumps access order
+        }
+    }
+
+    /**
+     * Called with the lock held; the line is queued in order and written on the writer thread
+     */
+    private void appendJournal(String op, String name, long size) {
+        String line = size >= 0 ? op + " " + name + " " + size + "\n" : op + " " + name + "\n";
+        writer.execute(() -> writeJournal(line));
+        if (!CLEAN.equals(op) && ++redundantOps >= COMPACT_AFTER_OPS) compactJournal();
+    }
+
+    /**
+     * Snapshots the live entries, in LRU order, under the lock and queues a rewrite
+     * of the journal as one CLEAN line per entry
+     */
+    private void compactJournal() {
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            lines.add(CLEAN + " " + entry.getKey() + " " + entry.getValue() + "\n");
+        }
+        redundantOps = 0;
+        writer.execute(() -> rewriteJournal(lines));
+    }
+
+    private void writeJournal(String line) {
+        try {
+            if (journal == null) journal = new BufferedWriter(new FileWriter(new File(dir, JOURNAL), true));
+            journal.write(line);
+            journal.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "journal append failed", e);
+        }
+    }
+
+    private void rewriteJournal(List<String> lines) {
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            File tmp = new File(dir, JOURNAL_TMP);
+            try (Writer out = new BufferedWriter(new FileWriter(tmp))) {
+                for (String line : lines) out.write(line);
+            }
+            if (!tmp.renameTo(new File(dir, JOURNAL))) Log.e(TAG, "journal rename failed");
+        } catch (IOException e) {
+            Log.e(TAG, "journal compaction failed", e);
+        }
+    }
+
+    /**
+     * Firebase keys are already file-safe; anything else is escaped as %XXXX. The fixed
+     * width keeps escapes from running into the characters after them, so two keys can
+     * never map to the same name.
+     */
+    static String safeName(String key) {
+        StringBuilder name = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                name.append(c);
+            } else {
+                name.append('%');
+                for (int shift = 12; shift >= 0; shift -= 4) name.append(Character.forDigit((c >> shift) & 0xF, 16));
+            }
+        }
+        return name.toString();
+    }
+}
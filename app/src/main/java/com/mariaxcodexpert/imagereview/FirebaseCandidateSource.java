@@ -0,0 +1,109 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pages review candidates out of the {@link ImageIndex}, least reviewed first, with
+ * {@code orderByChild("reviewCount").limitToFirst(n)} queries. Startup cost depends
+ * on the page size only, not on the number of users and images. Own and already
+ * interacted images are dropped: before the first page the user's {@link InteractionIndex}
+ * is merged into the local store once. Payloads are resolved lazily (see {@link ImageNode}).
+ * Pages are parsed and filtered on a background thread and delivered from there.
+ */
+public class FirebaseCandidateSource implements CandidateFeed.Source {
+
+    private static final ExecutorService parser = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final DatabaseReference indexRef;
+    private final DatabaseReference usersRef;
+    private final String currentUid;
+    private final InteractedImageStore interactedStore;
+
+    // Paging cursor: (reviewCount, key) of the last entry read
+    private double lastReviewCount = 0;
+    private String lastKey = null;
+
+    /**
+     * @param rootRef database root; the index lives at {@link ImageIndex#NODE}
+     */
+    public FirebaseCandidateSource(Context context, DatabaseReference rootRef, String currentUid,
+                                   InteractedImageStore interactedStore) {
+        this.context = context.getApplicationContext();
+        this.indexRef = ImageIndex.ref(rootRef);
+        this.usersRef = rootRef.child("users");
+        this.currentUid = currentUid;
+        this.interactedStore = interactedStore;
+    }
+
+    /**
+     * Reads maxItems index entries; fewer candidates come back once filtered
+     */
+    @Override
+    public void loadPage(int maxItems, CandidateFeed.PageCallback callback) {
+        InteractionIndex.syncOnce(usersRef, currentUid, interactedStore, new InteractionIndex.SyncCallback() {
+            @Override
+            public void onSynced() {
+                loadIndexPage(maxItems, callback);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    private void loadIndexPage(int maxItems, CandidateFeed.PageCallback callback) {
+        Query query = indexRef.orderByChild(ImageIndex.REVIEW_COUNT);
+        if (lastKey != null) query = query.startAfter(lastReviewCount, lastKey);
+
+        query.limitToFirst(maxItems).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                parser.execute(() -> parsePage(snapshot, maxItems, callback));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.toException());
+            }
+        });
+    }
+
+    /**
+     * Parser thread; the cursor is only read again by the next loadPage(), which the
+     * feed issues after this page was delivered
+     */
+    private void parsePage(DataSnapshot snapshot, int maxItems, CandidateFeed.PageCallback callback) {
+        try {
+            List<HybridImageSelector.ImageData> page = new ArrayList<>();
+            for (DataSnapshot entry : snapshot.getChildren()) {
+                lastKey = entry.getKey();
+                Long count = entry.child(ImageIndex.REVIEW_COUNT).getValue(Long.class);
+                lastReviewCount = count != null ? count : 0;
+
+                if (interactedStore.contains(lastKey)) continue;
+                HybridImageSelector.ImageData image = ImageIndex.toImageData(context, entry);
+                if (image == null || currentUid.equals(image.uid)) continue;
+                page.add(image);
+            }
+            callback.onPage(page, snapshot.getChildrenCount() < maxItems);
+        } catch (Exception e) {
+            callback.onError(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.database.DatabaseReference;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Payload of a legacy image stored as Base64 under {@code users/{uid}/images/{imageId}/image};
+ * new uploads live in Storage, see {@link StoragePayloadHandle}.
+ *
+ * Resolution order: {@link ImageCache} bytes, then {@link DiskImageCache}, then the
+ * database. When a listing already delivered the Base64 string it is decoded to
+ * disk in the background and dropped, so queued candidates hold metadata only.
+ * Decoding goes through {@link Base64Codec}, which skips the line breaks of the
+ * legacy format as it reads instead of stripping them from a copy first.
+ */
+public class FirebasePayloadHandle implements PayloadHandle {
+
+    private static final String TAG = "PayloadHandle";
+    private static final ExecutorService decoder = Executors.newFixedThreadPool(2);
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Context context;
+    private final String imageId;
+    private final DatabaseReference imageRef;
+    private volatile String inlineBase64; // until spilled to disk
+
+    /**
+     * @param imageRef     the image node, {@code users/{uid}/images/{imageId}}
+     * @param inlineBase64 payload already downloaded with the listing, or null
+     */
+    public FirebasePayloadHandle(Context context, String imageId, DatabaseReference imageRef, String inlineBase64) {
+        this.context = context.getApplicationContext();
+        this.imageId = imageId;
+        this.imageRef = imageRef;
+        this.inlineBase64 = inlineBase64;
+        if (inlineBase64 != null && !DiskImageCache.getInstance(this.context).contains(imageId)) {
+            decoder.execute(this::spillInline);
+        } else {
+            this.inlineBase64 = null;
+        }
+    }
+
+    @Override
+    public String getImageId() {
+        return imageId;
+    }
+
+    @Override
+    public void resolve(Callback callback) {
+        byte[] cached = ImageCache.getInstance().getPayload(imageId);
+        if (cached != null) {
+            callback.onReady(cached);
+            return;
+        }
+        ByteBuffer mapped = DiskImageCache.getInstance(context).getMapped(imageId);
+        if (mapped != null) {
+            callback.onReady(mapped);
+            return;
+        }
+
+        String base64 = inlineBase64;
+        if (base64 != null) {
+            decoder.execute(() -> decodeAndDeliver(base64, callback));
+            return;
+        }
+        imageRef.child(ImageNode.LEGACY_IMAGE).get()
+                .addOnSuccessListener(snapshot -> {
+                    String remote = snapshot.getValue(String.class);
+                    decoder.execute(() -> decodeAndDeliver(remote, callback));
+                })
+                .addOnFailureListener(callback::onError);
+    }
+
+    private void spillInline() {
+        String base64 = inlineBase64;
+        if (base64 == null) return;
+        // Decodes straight into the cache's copy buffer; no full-size array is ever built
+        if (!DiskImageCache.getInstance(context).putStream(imageId, Base64Codec.decodingStream(base64))) {
+            Log.e(TAG, "Could not spill payload for " + imageId);
+        }
+        inlineBase64 = null;
+    }
+
+    private void decodeAndDeliver(String base64, Callback callback) {
+        try {
+            if (base64 == null || base64.isEmpty()) throw new IllegalStateException("No payload for " + imageId);
+            byte[] bytes = Base64Codec.decode(base64);
+            inlineBase64 = null;
+            ImageCache.getInstance().putPayload(imageId, bytes);
+            DiskImageCache.getInstance(context).put(imageId, bytes);
+            mainHandler.post(() -> callback.onReady(bytes));
+        } catch (Exception e) {
+            mainHandler.post(() -> callback.onError(e));
+        }
+    }
+}
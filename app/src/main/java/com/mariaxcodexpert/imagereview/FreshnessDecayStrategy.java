@@ -0,0 +1,31 @@
+package com.mariaxcodexpert.imagereview;
+
+/**
+ * Favors recently uploaded, little-reviewed images: the inverse review weight
+ * is halved for every halfLife of age, based on the upload timestamp.
+ * Age is measured from the session start so weights stay fixed while sampling.
+ */
+public class FreshnessDecayStrategy extends WeightedSamplingStrategy {
+
+    public static final long DEFAULT_HALF_LIFE_MS = 24L * 60 * 60 * 1000; // 1 day
+
+    private final long sessionStart;
+    private final long halfLifeMs;
+
+    public FreshnessDecayStrategy(long sessionStart) {
+        this(sessionStart, DEFAULT_HALF_LIFE_MS);
+    }
+
+    public FreshnessDecayStrategy(long sessionStart, long halfLifeMs) {
+        this.sessionStart = sessionStart;
+        this.halfLifeMs = Math.max(1, halfLifeMs);
+    }
+
+    @Override
+    protected double weight(HybridImageSelector.ImageData image) {
+        long age = Math.max(0, sessionStart - image.timestamp);
+        double decay = Math.pow(0.5, (double) age / halfLifeMs);
+        // Keep very old images reachable once nothing fresher is left
+        return Math.max(Double.MIN_NORMAL, decay / (1 + Math.max(0, image.reviewCount)));
+    }
+}
@@ -1,9 +1,12 @@
 package com.mariaxcodexpert.imagereview;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 /**
  * HybridAlgorithm with Sliding Window:
@@ -12,72 +15,78 @@ import java.util.List;
  * 3️⃣ Prioritizes least-reviewed images
  * 4️⃣ Randomizes selection among equal-priority images
  * 5️⃣ Maintains a local batch of images (default 30) for smooth UX
+ *
+ * The ordering policy is a pluggable {@link SelectionStrategy}; the default
+ * {@link LeastReviewedStrategy} keeps peek/next/mark O(1) amortized and
+ * allocation-free no matter how large the pool grows.
  */
 public class HybridImageSelector {
 
     private static final int DEFAULT_WINDOW_SIZE = 30;
 
-    private final List<ImageData> imagePool;      // All loaded images
-    private final List<String> skippedImages;     // Image IDs skipped/interacted by user
+    private final Map<String, Candidate> imagePool = new HashMap<>(); // All loaded images by imageId
+    private final Set<String> skippedImages;                      // Image IDs served, skipped or interacted
+    private final SelectionStrategy strategy;                     // Orders eligible images
     private final String currentUserId;
-    private final int windowSize;
+    private final Random random = new Random();
 
-    private int currentIndex = 0; // pointer to current image
+    // Peeked images in serving order, held out of the strategy so the order stays fixed;
+    // the head is the current image
+    private final List<Candidate> upcoming = new ArrayList<>();
 
     public HybridImageSelector(List<ImageData> initialPool, List<String> skippedImages, String currentUserId) {
         this(initialPool, skippedImages, currentUserId, DEFAULT_WINDOW_SIZE);
     }
 
     public HybridImageSelector(List<ImageData> initialPool, List<String> skippedImages, String currentUserId, int windowSize) {
-        this.imagePool = new ArrayList<>(initialPool);
-        this.skippedImages = new ArrayList<>(skippedImages);
-        this.currentUserId = currentUserId;
-        this.windowSize = windowSize;
-        sortPoolByReviewCount();
+        this(initialPool, skippedImages, currentUserId, new LeastReviewedStrategy(windowSize));
     }
 
-    /**
-     * Sort pool by review count ascending
-     */
-    private void sortPoolByReviewCount() {
-        Collections.sort(imagePool, Comparator.comparingInt(img -> img.reviewCount));
+    public HybridImageSelector(List<ImageData> initialPool, List<String> skippedImages, String currentUserId,
+                               SelectionStrategy strategy) {
+        this.skippedImages = new HashSet<>(skippedImages);
+        this.currentUserId = currentUserId;
+        this.strategy = strategy;
+        for (ImageData img : initialPool) {
+            insert(img);
+        }
     }
 
     /**
-     * Returns the next image based on hybrid rules and moves pointer forward
+     * Returns the next image based on hybrid rules and moves pointer forward.
+     * The image leaves the pool and will not be offered again.
      */
     public ImageData getNextImage() {
         ImageData next = peekNextImage();
-        if (next != null) currentIndex++;
+        if (next != null) {
+            skippedImages.add(next.imageId);
+            dequeue(imagePool.get(next.imageId));
+        }
         return next;
     }
 
     /**
-     * Returns the next image without advancing the pointer
+     * Returns the next image without advancing the pointer.
+     * Repeated calls return the same image until it is marked, skipped or taken.
      */
     public ImageData peekNextImage() {
-        List<ImageData> validImages = new ArrayList<>();
-        for (int i = currentIndex; i < imagePool.size(); i++) {
-            ImageData img = imagePool.get(i);
-            if (!img.uid.equals(currentUserId)
-                    && !skippedImages.contains(img.imageId)
-                    && !img.alreadyReviewed) {
-                validImages.add(img);
-            }
-            if (validImages.size() >= windowSize) break;
-        }
-
-        if (validImages.isEmpty()) return null;
+        if (upcoming.isEmpty() && !reserveNext()) return null;
+        return upcoming.get(0).image;
+    }
 
-        int minReviews = validImages.get(0).reviewCount;
-        List<ImageData> leastReviewed = new ArrayList<>();
-        for (ImageData img : validImages) {
-            if (img.reviewCount == minReviews) leastReviewed.add(img);
-            else break;
+    /**
+     * The next count images in the order they will be served, current image first;
+     * fewer if the queue runs out. They are committed to that order: later adds and
+     * review-count changes do not reorder them, so they can be loaded ahead of time.
+     */
+    public List<ImageData> peekNextImages(int count) {
+        while (upcoming.size() < count && reserveNext()) {
+            // reserveNext() appends to upcoming
         }
-
-        Collections.shuffle(leastReviewed);
-        return leastReviewed.get(0);
+        int size = Math.min(count, upcoming.size());
+        List<ImageData> images = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) images.add(upcoming.get(i).image);
+        return images;
     }
 
     /**
@@ -87,8 +96,11 @@ public class HybridImageSelector {
     public void markImageInteracted(ImageData image) {
         if (image != null) {
             image.alreadyReviewed = true;       // local flag
-            if (!skippedImages.contains(image.imageId)) {
-                skippedImages.add(image.imageId);
+            skippedImages.add(image.imageId);
+            Candidate candidate = imagePool.get(image.imageId);
+            if (candidate != null) {
+                candidate.image.alreadyReviewed = true;
+                dequeue(candidate); // only the ID is kept, so the pool stays bounded
             }
         }
     }
@@ -105,38 +117,124 @@ public class HybridImageSelector {
      */
     public void addImages(List<ImageData> newImages) {
         for (ImageData img : newImages) {
-            if (!imagePool.contains(img) && !skippedImages.contains(img.imageId)) {
-                imagePool.add(img);
-            }
-        }
-        // Keep only the most recent windowSize images
-        if (imagePool.size() > windowSize) {
-            imagePool.subList(0, imagePool.size() - windowSize).clear();
-            if (currentIndex > imagePool.size()) currentIndex = imagePool.size() - 1;
+            insert(img);
         }
-        sortPoolByReviewCount();
     }
 
+    /**
+     * Add a single image to the pool
+     */
+    public void addImage(ImageData image) {
+        insert(image);
+    }
+
+    /**
+     * Re-ranks an image after its review count changed (e.g. someone else reviewed it).
+     * O(1) for the default strategy, O(log n) for weighted ones; peeked images keep
+     * their place even if they are no longer the best candidates.
+     *
+     * @return false if the image is not in the pool
+     */
+    public boolean updateReviewCount(String imageId, int newCount) {
+        Candidate candidate = imagePool.get(imageId);
+        if (candidate == null) return false;
+        if (candidate.image.reviewCount == newCount) return true;
+
+        candidate.image.reviewCount = newCount;
+        if (candidate.queued && !candidate.reserved) strategy.update(candidate);
+        return true;
+    }
+
+    /**
+     * Number of images loaded and not yet served or interacted with
+     */
     public int getPoolSize() {
         return imagePool.size();
     }
 
     /**
-     * ImageData model for this algorithm
+     * Number of images still eligible for selection; drives {@link CandidateFeed} refills
+     */
+    public int getQueueSize() {
+        return strategy.size() + upcoming.size();
+    }
+
+    private void insert(ImageData img) {
+        if (imagePool.containsKey(img.imageId) || skippedImages.contains(img.imageId)) return;
+        if (img.uid.equals(currentUserId) || img.alreadyReviewed) return;
+
+        Candidate candidate = new Candidate(img);
+        imagePool.put(img.imageId, candidate);
+        strategy.add(candidate);
+        candidate.queued = true;
+    }
+
+    /**
+     * Moves the strategy's next pick to the end of the look-ahead
+     */
+    private boolean reserveNext() {
+        Candidate next = strategy.pick(random);
+        if (next == null) return false;
+        strategy.remove(next);
+        next.reserved = true;
+        upcoming.add(next);
+        return true;
+    }
+
+    private void dequeue(Candidate candidate) {
+        if (candidate == null || !candidate.queued) return;
+        if (candidate.reserved) {
+            upcoming.remove(candidate); // a handful of entries, usually the head
+            candidate.reserved = false;
+        } else {
+            strategy.remove(candidate);
+        }
+        candidate.queued = false;
+        imagePool.remove(candidate.image.imageId);
+    }
+
+    /**
+     * Pool entry handed to the {@link SelectionStrategy}.
+     * Strategies keep their own position in it, so they need no lookup maps.
+     */
+    public static class Candidate {
+        public final ImageData image;
+        boolean queued;   // still eligible
+        boolean reserved; // peeked: in the look-ahead instead of the strategy
+        int group = -1;   // strategy-defined, e.g. review-count bucket
+        int slot = -1;    // strategy-defined index
+
+        Candidate(ImageData image) {
+            this.image = image;
+        }
+    }
+
+    /**
+     * ImageData model for this algorithm: metadata only, the image bytes sit
+     * behind a lazily resolved {@link PayloadHandle}
      */
     public static class ImageData {
         public String uid;
         public String imageId;
-        public String imageBase64;
         public int reviewCount;
         public boolean alreadyReviewed; // true if user interacted
+        public long timestamp;          // upload time in millis, 0 if unknown
+        public long sizeBytes;          // decoded payload size, 0 if unknown
+        public PayloadHandle payload;   // null if the image has no payload
+
+        public ImageData(String uid, String imageId, int reviewCount, boolean alreadyReviewed) {
+            this(uid, imageId, reviewCount, alreadyReviewed, 0, 0, null);
+        }
 
-        public ImageData(String uid, String imageId, String imageBase64, int reviewCount, boolean alreadyReviewed) {
+        public ImageData(String uid, String imageId, int reviewCount, boolean alreadyReviewed,
+                         long timestamp, long sizeBytes, PayloadHandle payload) {
             this.uid = uid;
             this.imageId = imageId;
-            this.imageBase64 = imageBase64;
             this.reviewCount = reviewCount;
             this.alreadyReviewed = alreadyReviewed;
+            this.timestamp = timestamp;
+            this.sizeBytes = sizeBytes;
+            this.payload = payload;
         }
 
         @Override
@@ -1,29 +1,113 @@
 package com.mariaxcodexpert.imagereview;
 
-import java.util.ArrayList;
-import java.util.List;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+
+/**
+ * In-memory image cache keyed by imageId.
+ * Raw payload bytes are kept in a byte-accounted LRU that shrinks when the system
+ * reports memory pressure through onTrimMemory. Decoded bitmaps are left to Glide's
+ * own memory cache.
+ */
+public class ImageCache implements ComponentCallbacks2 {
 
-public class ImageCache {
     private static ImageCache instance;
-    private final List<HybridImageSelector.ImageData> images = new ArrayList<>();
 
-    private ImageCache() {}
+    private final LruCache<String, byte[]> payloads;
+    private boolean registered = false;
+
+    private ImageCache(int payloadBudgetBytes) {
+        payloads = new LruCache<String, byte[]>(payloadBudgetBytes) {
+            @Override
+            protected int sizeOf(@NonNull String key, @NonNull byte[] value) {
+                return value.length;
+            }
+        };
+    }
 
+    /**
+     * Budget: 1/16 of the heap for payloads
+     */
     public static synchronized ImageCache getInstance() {
-        if (instance == null) instance = new ImageCache();
+        if (instance == null) {
+            long maxHeap = Runtime.getRuntime().maxMemory();
+            instance = new ImageCache((int) Math.min(Integer.MAX_VALUE, maxHeap / 16));
+        }
         return instance;
     }
 
-    public List<HybridImageSelector.ImageData> getImages() {
-        return images;
+    /**
+     * Subscribes the cache to onTrimMemory; called once from {@link ImageReviewApp}, repeats are no-ops
+     */
+    public synchronized void register(Context context) {
+        if (registered) return;
+        context.getApplicationContext().registerComponentCallbacks(this);
+        registered = true;
     }
 
-    public void setImages(List<HybridImageSelector.ImageData> list) {
-        images.clear();
-        images.addAll(list);
+    // =====================
+    // Raw payload bytes
+    // =====================
+
+    public byte[] getPayload(String imageId) {
+        return imageId == null ? null : payloads.get(imageId);
+    }
+
+    public void putPayload(String imageId, byte[] bytes) {
+        if (imageId != null && bytes != null) payloads.put(imageId, bytes);
     }
 
     public void clear() {
-        images.clear();
+        evictBytes();
+    }
+
+    private void evictBytes() {
+        payloads.evictAll();
+    }
+
+    // =====================
+    // Stats
+    // =====================
+
+    public int getPayloadHitCount() {
+        return payloads.hitCount();
+    }
+
+    public int getPayloadMissCount() {
+        return payloads.missCount();
     }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ImageCache[payloads " + payloads.size() + "/" + payloads.maxSize() + " B, hits="
+                + payloads.hitCount() + " misses=" + payloads.missCount() + "]";
+    }
+
+    // =====================
+    // Memory pressure
+    // =====================
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            evictBytes();
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN || level == TRIM_MEMORY_RUNNING_LOW) {
+            payloads.trimToSize(payloads.maxSize() / 2);
+        } else if (level == TRIM_MEMORY_RUNNING_MODERATE) {
+            payloads.trimToSize(payloads.maxSize() * 3 / 4);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        evictBytes();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {}
 }
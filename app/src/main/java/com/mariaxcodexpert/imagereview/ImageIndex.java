@@ -0,0 +1,78 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Denormalized review queue, {@code imageIndex/{imageId}}: one flat entry per image with
+ * its owner, review count and payload reference. Ordered and indexed by reviewCount
+ * (see database.rules.json), so the feed reads least-reviewed pages directly instead of
+ * downloading the users tree. Written together with the image node in one multi-path update.
+ */
+public final class ImageIndex {
+
+    public static final String NODE = "imageIndex";
+    public static final String UID = "uid";
+    public static final String REVIEW_COUNT = "reviewCount";
+
+    private ImageIndex() {}
+
+    public static DatabaseReference ref(DatabaseReference root) {
+        return root.child(NODE);
+    }
+
+    /**
+     * Entries of one owner's images, in imageId order. Indexed on uid, so the owner's grid
+     * reads the flat entries instead of the image nodes with their reviews and payloads.
+     */
+    public static Query ownedBy(DatabaseReference root, String uid) {
+        return ref(root).orderByChild(UID).equalTo(uid);
+    }
+
+    /**
+     * Entry for a new image, keyed relative to the database root for multi-path updates
+     *
+     * @param renditions the node's {@link ImageNode#RENDITIONS} map, may be empty
+     */
+    public static Map<String, Object> newEntry(String uid, String imageId, String storagePath,
+                                               long sizeBytes, long timestamp,
+                                               Map<String, Object> renditions) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put(UID, uid);
+        entry.put(REVIEW_COUNT, 0);
+        entry.put(ImageNode.STORAGE_PATH, storagePath);
+        entry.put(ImageNode.SIZE_BYTES, sizeBytes);
+        entry.put(ImageNode.TIMESTAMP, timestamp);
+        if (!renditions.isEmpty()) entry.put(ImageNode.RENDITIONS, renditions);
+
+        Map<String, Object> update = new HashMap<>();
+        update.put(NODE + "/" + imageId, entry);
+        return update;
+    }
+
+    /**
+     * Adds the queue-count bump for a first review, reaction or skip to a multi-path update
+     */
+    public static void addReview(Map<String, Object> update, String imageId) {
+        update.put(NODE + "/" + imageId + "/" + REVIEW_COUNT, ServerValue.increment(1));
+    }
+
+    public static HybridImageSelector.ImageData toImageData(Context context, DataSnapshot entry) {
+        String uid = entry.child(UID).getValue(String.class);
+        if (uid == null) return null;
+        PayloadHandle payload = ImageNode.payloadOf(context, entry);
+        if (payload == null) return null;
+
+        Long reviewCount = entry.child(REVIEW_COUNT).getValue(Long.class);
+        return new HybridImageSelector.ImageData(uid, entry.getKey(),
+                reviewCount != null ? reviewCount.intValue() : 0, false,
+                ImageNode.timestampOf(entry), ImageNode.sizeOf(entry), payload);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of an image node, {@code users/{uid}/images/{imageId}}.
+ *
+ * New uploads keep their bytes in Firebase Storage and store only a path, size and
+ * dimensions here, plus the same for each downscaled {@link Rendition} under
+ * {@link #RENDITIONS}. Older nodes still carry the Base64 payload under {@link #LEGACY_IMAGE}
+ * until they are migrated.
+ */
+public final class ImageNode {
+
+    public static final String STORAGE_PATH = "storagePath";
+    public static final String SIZE_BYTES = "sizeBytes";
+    public static final String WIDTH = "width";
+    public static final String HEIGHT = "height";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String REVIEWS = "reviews";
+    public static final String RENDITIONS = "renditions";
+    public static final String LEGACY_IMAGE = "image";
+
+    private ImageNode() {}
+
+    /**
+     * Database path of the image node, relative to the root: {@code users/{uid}/images/{imageId}}
+     */
+    public static String path(String uid, String imageId) {
+        return "users/" + uid + "/images/" + imageId;
+    }
+
+    /**
+     * Storage object for an image: {@code images/{uid}/{imageId}}
+     */
+    public static String storagePath(String uid, String imageId) {
+        return "images/" + uid + "/" + imageId;
+    }
+
+    /**
+     * Storage object for a rendition: {@code images/{uid}/{imageId}_{name}}
+     */
+    public static String storagePath(String uid, String imageId, String rendition) {
+        return storagePath(uid, imageId) + "_" + rendition;
+    }
+
+    /**
+     * Payload handle for the node, or null if it has no image at all
+     */
+    public static PayloadHandle payloadOf(Context context, DataSnapshot imageSnap) {
+        String path = imageSnap.child(STORAGE_PATH).getValue(String.class);
+        if (path != null && !path.isEmpty()) {
+            return new StoragePayloadHandle(context, imageSnap.getKey(), path, sizeOf(imageSnap),
+                    renditionsOf(imageSnap));
+        }
+        String base64 = imageSnap.child(LEGACY_IMAGE).getValue(String.class);
+        if (base64 != null && !base64.isEmpty()) {
+            return new FirebasePayloadHandle(context, imageSnap.getKey(), imageSnap.getRef(), base64);
+        }
+        return null;
+    }
+
+    /**
+     * Stored byte size, estimated from the Base64 length for legacy nodes; 0 if unknown
+     */
+    public static long sizeOf(DataSnapshot imageSnap) {
+        Long size = imageSnap.child(SIZE_BYTES).getValue(Long.class);
+        if (size != null) return size;
+        String base64 = imageSnap.child(LEGACY_IMAGE).getValue(String.class);
+        return base64 != null ? base64.length() * 3L / 4 : 0;
+    }
+
+    /**
+     * Renditions recorded on the node (or index entry); empty for older uploads
+     */
+    public static List<Rendition> renditionsOf(DataSnapshot imageSnap) {
+        List<Rendition> renditions = new ArrayList<>();
+        for (DataSnapshot r : imageSnap.child(RENDITIONS).getChildren()) {
+            String path = r.child(STORAGE_PATH).getValue(String.class);
+            Integer width = r.child(WIDTH).getValue(Integer.class);
+            Integer height = r.child(HEIGHT).getValue(Integer.class);
+            Long size = r.child(SIZE_BYTES).getValue(Long.class);
+            if (path == null || width == null || height == null) continue;
+            renditions.add(new Rendition(r.getKey(), path, width, height, size != null ? size : 0));
+        }
+        return renditions;
+    }
+
+    public static long timestampOf(DataSnapshot imageSnap) {
+        Long timestamp = imageSnap.child(TIMESTAMP).getValue(Long.class);
+        return timestamp != null ? timestamp : 0;
+    }
+}
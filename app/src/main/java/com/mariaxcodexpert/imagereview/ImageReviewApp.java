@@ -0,0 +1,42 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.storage.FirebaseStorage;
+
+/**
+ * Process-wide setup that has to run before any activity touches Firebase.
+ */
+public class ImageReviewApp extends Application {
+
+    private static final String TAG = "ImageReviewApp";
+    public static final String DATABASE_URL = "https://imagereview397-default-rtdb.firebaseio.com/";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        ImageCache.getInstance().register(this);
+        useEmulatorsIfConfigured();
+    }
+
+    /**
+     * Points Auth, Database and Storage at the local Firebase emulator suite when the
+     * build sets {@code -PfirebaseEmulatorHost=10.0.2.2} (default emulator ports)
+     */
+    private void useEmulatorsIfConfigured() {
+        String host = BuildConfig.FIREBASE_EMULATOR_HOST;
+        if (host == null || host.isEmpty()) return;
+        try {
+            FirebaseAuth.getInstance().useEmulator(host, 9099);
+            FirebaseDatabase.getInstance().useEmulator(host, 9000);
+            FirebaseDatabase.getInstance(DATABASE_URL).useEmulator(host, 9000);
+            FirebaseStorage.getInstance().useEmulator(host, 9199);
+            Log.i(TAG, "Using Firebase emulators on " + host);
+        } catch (IllegalStateException e) {
+            Log.e(TAG, "Emulator setup must run before first Firebase use", e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.io.InputStream;
+
+/**
+ * Registers {@link PayloadModelLoader}, so screens hand Glide the image model itself
+ * and Glide caches by imageId and rendition.
+ */
+@GlideModule
+public final class ImageReviewGlideModule extends AppGlideModule {
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(HybridImageSelector.ImageData.class, InputStream.class,
+                new PayloadModelLoader.Factory<>(PayloadModelLoader.IMAGE_DATA));
+        registry.prepend(UserImageModel.class, InputStream.class,
+                new PayloadModelLoader.Factory<>(PayloadModelLoader.USER_IMAGE));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
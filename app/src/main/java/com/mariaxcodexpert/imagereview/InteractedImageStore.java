@@ -0,0 +1,206 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * On-disk set of image IDs the user already reacted to, rated or skipped.
+ * Lets the feed loaders drop candidates before touching their payload or reviews.
+ *
+ * IDs are kept as sorted 64-bit hashes (8 bytes each) behind a Bloom filter:
+ * most misses are answered by the filter alone, hits are confirmed by binary search.
+ * New IDs go to a small unsorted buffer and are merged into the sorted array in one
+ * linear pass when it fills up or on flush(), instead of shifting the array per add.
+ * The file is rewritten atomically on flush() and loads with one bulk read.
+ */
+public class InteractedImageStore {
+
+    private static final String TAG = "InteractedStore";
+    private static final int MAGIC = 0x49524931; // "IRI1"
+    private static final int HEADER_BYTES = 8;    // magic + count
+    private static final int BLOOM_BITS_PER_ID = 10;
+    private static final int BLOOM_HASHES = 3;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int PENDING_CAPACITY = 256; // scanned linearly by contains()
+
+    private static InteractedImageStore instance;
+
+    private final File file;
+    private long[] hashes = new long[0]; // sorted, exact membership
+    private int size = 0;
+    private final long[] pending = new long[PENDING_CAPACITY]; // added since the last merge, unsorted
+    private int pendingCount = 0;
+    private long[] bloom;
+    private int bloomBits;
+    private int bloomCapacity; // IDs the filter was sized for
+    private boolean dirty = false;
+    private boolean remoteSynced = false; // in-memory: the remote index was merged this process
+
+    InteractedImageStore(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Store for the signed-in user; switching users opens that user's file.
+     */
+    public static synchronized InteractedImageStore getInstance(Context context, String uid) {
+        File file = new File(context.getFilesDir(), "interacted_" + uid + ".bin");
+        if (instance == null || !instance.file.equals(file)) {
+            instance = new InteractedImageStore(file);
+        }
+        return instance;
+    }
+
+    public synchronized boolean contains(String imageId) {
+        if (imageId == null) return false;
+        long hash = hash(imageId);
+        return bloomMightContain(hash) && containsHash(hash);
+    }
+
+    public synchronized void add(String imageId) {
+        if (imageId == null) return;
+        long hash = hash(imageId);
+        if (containsHash(hash)) return;
+
+        if (pendingCount == PENDING_CAPACITY) mergePending();
+        pending[pendingCount++] = hash;
+        dirty = true;
+
+        if (size + pendingCount > bloomCapacity) rebuildBloom();
+        else bloomAdd(hash);
+    }
+
+    public synchronized int size() {
+        return size + pendingCount;
+    }
+
+    /**
+     * True once {@link InteractionIndex#syncOnce} merged the remote index in this process
+     */
+    public synchronized boolean isRemoteSynced() {
+        return remoteSynced;
+    }
+
+    public synchronized void setRemoteSynced() {
+        remoteSynced = true;
+    }
+
+    /**
+     * Writes pending additions to disk (temp file + rename, so a crash keeps the old copy)
+     */
+    public synchronized void flush() {
+        if (!dirty) return;
+        mergePending();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) out.writeLong(hashes[i]);
+        } catch (IOException e) {
+            Log.e(TAG, "flush failed", e);
+            return;
+        }
+        if (tmp.renameTo(file)) dirty = false;
+        else Log.e(TAG, "flush rename failed");
+    }
+
+    private void load() {
+        if (file.exists()) {
+            try (FileInputStream in = new FileInputStream(file);
+                 FileChannel channel = in.getChannel()) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+                while (buffer.hasRemaining() && channel.read(buffer) > 0) { }
+                buffer.flip();
+
+                if (buffer.remaining() >= HEADER_BYTES && buffer.getInt() == MAGIC) {
+                    int count = Math.min(buffer.getInt(), buffer.remaining() / 8);
+                    hashes = new long[Math.max(MIN_CAPACITY, count)];
+                    buffer.asLongBuffer().get(hashes, 0, count);
+                    size = count;
+                    Arrays.sort(hashes, 0, size); // cheap if already sorted, repairs hand-edited files
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "load failed, starting empty", e);
+                size = 0;
+            }
+        }
+        rebuildBloom();
+    }
+
+    private boolean containsHash(long hash) {
+        if (Arrays.binarySearch(hashes, 0, size, hash) >= 0) return true;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pending[i] == hash) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the buffer and merges it into the sorted array from the back, one pass
+     */
+    private void mergePending() {
+        if (pendingCount == 0) return;
+        Arrays.sort(pending, 0, pendingCount);
+        int total = size + pendingCount;
+        if (total > hashes.length) hashes = Arrays.copyOf(hashes, Math.max(MIN_CAPACITY, total * 2));
+
+        int i = size - 1;
+        int j = pendingCount - 1;
+        for (int k = total - 1; j >= 0; k--) {
+            hashes[k] = i >= 0 && hashes[i] > pending[j] ? hashes[i--] : pending[j--];
+        }
+        size = total;
+        pendingCount = 0;
+    }
+
+    private void rebuildBloom() {
+        bloomCapacity = Math.max(MIN_CAPACITY, (size + pendingCount) * 2);
+        bloomBits = bloomCapacity * BLOOM_BITS_PER_ID;
+        bloom = new long[(bloomBits + 63) / 64];
+        for (int i = 0; i < size; i++) bloomAdd(hashes[i]);
+        for (int i = 0; i < pendingCount; i++) bloomAdd(pending[i]);
+    }
+
+    private void bloomAdd(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bloomBits;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean bloomMightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bloomBits;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a; collisions are negligible for per-user interaction counts
+     */
+    static long hash(String imageId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < imageId.length(); i++) {
+            h ^= imageId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mariaxcodexpert.imagereview;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Map;
+
+/**
+ * Per-user interaction index, {@code users/{uid}/interacted/{imageId} = timestamp}.
+ * Written with every reaction, rating or skip, so "did I already review this?" is
+ * answered from one small node instead of each image's reviews map. The node is
+ * mirrored into the local {@link InteractedImageStore} once per session.
+ */
+public final class InteractionIndex {
+
+    public static final String NODE = "interacted";
+
+    public interface SyncCallback {
+        void onSynced();
+
+        void onError(Exception e);
+    }
+
+    private InteractionIndex() {}
+
+    public static DatabaseReference ref(DatabaseReference usersRef, String uid) {
+        return usersRef.child(uid).child(NODE);
+    }
+
+    /**
+     * Adds the interaction entry to a multi-path update relative to the database root
+     */
+    public static void add(Map<String, Object> update, String uid, String imageId) {
+        update.put("users/" + uid + "/" + NODE + "/" + imageId, ServerValue.TIMESTAMP);
+    }
+
+    /**
+     * Copies the remote index into the store unless this session already did.
+     * Reads the user's own node only, so the cost does not grow with other people's reviews.
+     */
+    public static void syncOnce(DatabaseReference usersRef, String uid, InteractedImageStore store,
+                                SyncCallback callback) {
+        if (store.isRemoteSynced()) {
+            callback.onSynced();
+            return;
+        }
+        ref(usersRef, uid).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                for (DataSnapshot entry : snapshot.getChildren()) store.add(entry.getKey());
+                store.setRemoteSynced();
+                store.flush();
+                callback.onSynced();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onError(error.toException());
+            }
+        });
+    }
+}
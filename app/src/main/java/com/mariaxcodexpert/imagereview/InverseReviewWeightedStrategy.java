@@ -0,0 +1,13 @@
+package com.mariaxcodexpert.imagereview;
+
+/**
+ * Samples every eligible image with probability proportional to 1 / (1 + reviewCount),
+ * so less-reviewed images come up more often without starving the rest.
+ */
+public class InverseReviewWeightedStrategy extends WeightedSamplingStrategy {
+
+    @Override
+    protected double weight(HybridImageSelector.ImageData image) {
+        return 1.0 / (1 + Math.max(0, image.reviewCount));
+    }
+}
@@ -0,0 +1,101 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Strict least-reviewed first: random pick among the first windowSize images
+ * of the lowest non-empty review-count bucket. All operations are O(1) amortized.
+ *
+ * Counts at or above {@link #MAX_BUCKET} share the top bucket, so one heavily reviewed
+ * image costs one bucket, not one per review it ever had. Those images are only
+ * reached once every less-reviewed candidate is gone.
+ */
+public class LeastReviewedStrategy implements SelectionStrategy {
+
+    static final int MAX_BUCKET = 1023;
+
+    private final int windowSize;
+    private final List<Bucket> buckets = new ArrayList<>(); // index = reviewCount
+    private int lowestBucket = 0; // no candidate has fewer reviews than this
+    private int size = 0;
+
+    public LeastReviewedStrategy(int windowSize) {
+        this.windowSize = Math.max(1, windowSize);
+    }
+
+    @Override
+    public void add(HybridImageSelector.Candidate candidate) {
+        enqueue(candidate);
+        size++;
+    }
+
+    @Override
+    public void remove(HybridImageSelector.Candidate candidate) {
+        buckets.get(candidate.group).remove(candidate);
+        size--;
+    }
+
+    @Override
+    public void update(HybridImageSelector.Candidate candidate) {
+        if (candidate.group == bucketOf(candidate)) return;
+        buckets.get(candidate.group).remove(candidate);
+        enqueue(candidate);
+    }
+
+    @Override
+    public HybridImageSelector.Candidate pick(Random random) {
+        while (lowestBucket < buckets.size() && buckets.get(lowestBucket).size == 0) {
+            lowestBucket++;
+        }
+        if (lowestBucket >= buckets.size()) return null;
+
+        Bucket leastReviewed = buckets.get(lowestBucket);
+        int range = Math.min(windowSize, leastReviewed.size);
+        return leastReviewed.candidates[random.nextInt(range)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void enqueue(HybridImageSelector.Candidate candidate) {
+        int index = bucketOf(candidate);
+        while (buckets.size() <= index) buckets.add(new Bucket());
+        buckets.get(index).add(candidate);
+        candidate.group = index;
+        if (index < lowestBucket) lowestBucket = index;
+    }
+
+    private static int bucketOf(HybridImageSelector.Candidate candidate) {
+        return Math.min(Math.max(0, candidate.image.reviewCount), MAX_BUCKET);
+    }
+
+    /**
+     * Unordered array of candidates with O(1) swap-remove
+     */
+    private static class Bucket {
+        HybridImageSelector.Candidate[] candidates = new HybridImageSelector.Candidate[4];
+        int size;
+
+        void add(HybridImageSelector.Candidate candidate) {
+            if (size == candidates.length) {
+                HybridImageSelector.Candidate[] grown = new HybridImageSelector.Candidate[size * 2];
+                System.arraycopy(candidates, 0, grown, 0, size);
+                candidates = grown;
+            }
+            candidate.slot = size;
+            candidates[size++] = candidate;
+        }
+
+        void remove(HybridImageSelector.Candidate candidate) {
+            HybridImageSelector.Candidate last = candidates[--size];
+            candidates[candidate.slot] = last;
+            last.slot = candidate.slot;
+            candidates[size] = null;
+            candidate.slot = -1;
+        }
+    }
+}
@@ -7,21 +7,12 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.auth.UserProfileChangeRequest;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-
-import java.util.ArrayList;
-import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -30,9 +21,7 @@ public class MainActivity extends AppCompatActivity {
     private LinearLayout cardUploadImage, cardReviewImage;
     private Button btnLogout;
 
-    private final int MIN_PRELOAD_COUNT = 30;
     private FirebaseUser currentUser;
-    private DatabaseReference dbRef;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -55,21 +44,14 @@ public class MainActivity extends AppCompatActivity {
 
         setupUserProfile();
 
-        dbRef = FirebaseDatabase.getInstance("https://imagereview397-default-rtdb.firebaseio.com/")
-                .getReference("users");
-
-        // Preload images in background
-        preloadImagesToCache();
-
         // Card click listeners
         cardUploadImage.setOnClickListener(v ->
                 startActivity(new Intent(MainActivity.this, UploadImageActivity.class))
         );
 
-        cardReviewImage.setOnClickListener(v -> {
-            // Go directly to ReviewImageActivity regardless of preload
-            startActivity(new Intent(MainActivity.this, ReviewImageActivity.class));
-        });
+        cardReviewImage.setOnClickListener(v ->
+                startActivity(new Intent(MainActivity.this, ReviewImageActivity.class))
+        );
 
         // Logout
         btnLogout.setOnClickListener(v -> {
@@ -108,56 +90,4 @@ public class MainActivity extends AppCompatActivity {
         startActivity(intent);
         finish();
     }
-
-    /**
-     * Preload images into singleton cache in background for smoother review experience.
-     * No Toasts are shown; this happens silently.
-     */
-    private void preloadImagesToCache() {
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                List<HybridImageSelector.ImageData> preloadedImages = new ArrayList<>();
-
-                for (DataSnapshot userSnapshot : snapshot.getChildren()) {
-                    String uid = userSnapshot.getKey();
-                    if (uid.equals(currentUser.getUid())) continue; // skip own images
-                    if (!userSnapshot.hasChild("images")) continue;
-
-                    for (DataSnapshot imageSnap : userSnapshot.child("images").getChildren()) {
-                        String imageEncoded = imageSnap.child("image").getValue(String.class);
-                        if (imageEncoded == null || imageEncoded.isEmpty()) continue;
-
-                        int reviewCount = (int) imageSnap.child("reviews").getChildrenCount();
-                        boolean alreadyReviewed = imageSnap.hasChild("reviews") &&
-                                imageSnap.child("reviews").hasChild(currentUser.getUid());
-
-                        Boolean skipped = null;
-                        if (alreadyReviewed)
-                            skipped = imageSnap.child("reviews").child(currentUser.getUid())
-                                    .child("skipped").getValue(Boolean.class);
-
-                        if ((skipped != null && skipped) || alreadyReviewed) continue;
-
-                        String imageId = imageSnap.getKey();
-                        preloadedImages.add(new HybridImageSelector.ImageData(
-                                uid, imageId, imageEncoded, reviewCount, false
-                        ));
-
-                        if (preloadedImages.size() >= MIN_PRELOAD_COUNT) break;
-                    }
-                    if (preloadedImages.size() >= MIN_PRELOAD_COUNT) break;
-                }
-
-                if (!preloadedImages.isEmpty()) {
-                    ImageCache.getInstance().setImages(preloadedImages);
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                // Silent fail, no Toast
-            }
-        });
-    }
 }
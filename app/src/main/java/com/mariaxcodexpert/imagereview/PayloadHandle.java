@@ -0,0 +1,43 @@
+package com.mariaxcodexpert.imagereview;
+
+/**
+ * Lazily resolved image bytes, kept apart from the lightweight metadata in
+ * {@link HybridImageSelector.ImageData} and {@link UserImageModel} so that
+ * selection, sorting and list updates never touch image payloads.
+ */
+public interface PayloadHandle {
+
+    interface Callback {
+        /**
+         * Called on the main thread.
+         *
+         * @param model a read-only ByteBuffer mapped from {@link DiskImageCache}, or a byte[]
+         */
+        void onReady(Object model);
+
+        void onError(Exception e);
+    }
+
+    String getImageId();
+
+    /**
+     * Fetches the bytes from the cheapest tier that has them (memory, disk, network)
+     */
+    void resolve(Callback callback);
+
+    /**
+     * Like {@link #resolve(Callback)}, but fetches the smallest stored {@link Rendition}
+     * that covers a view of the given size. Payloads without renditions return the original.
+     */
+    default void resolve(int targetWidth, int targetHeight, Callback callback) {
+        resolve(callback);
+    }
+
+    /**
+     * Stable cache key of what {@link #resolve(int, int, Callback)} returns for that size:
+     * the imageId, plus the rendition name when a rendition is used
+     */
+    default String cacheKey(int targetWidth, int targetHeight) {
+        return getImageId();
+    }
+}
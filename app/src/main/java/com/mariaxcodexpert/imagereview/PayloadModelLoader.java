@@ -0,0 +1,144 @@
+package com.mariaxcodexpert.imagereview;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.signature.ObjectKey;
+import com.bumptech.glide.util.ByteBufferUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Lets Glide load {@link HybridImageSelector.ImageData} and {@link UserImageModel} directly.
+ *
+ * The cache key is the imageId plus the rendition picked for the requested size
+ * ({@link PayloadHandle#cacheKey}), so Glide's memory and disk caches hit for the same
+ * image across screens and sessions. The bytes come from the model's
+ * {@link PayloadHandle} (memory, disk, then network) and are streamed to Glide's decoder,
+ * which downsamples them to the view.
+ */
+public class PayloadModelLoader<Model> implements ModelLoader<Model, InputStream> {
+
+    /**
+     * Payload of a model, null if it has none
+     */
+    public interface PayloadOf<Model> {
+        PayloadHandle get(Model model);
+    }
+
+    public static final PayloadOf<HybridImageSelector.ImageData> IMAGE_DATA = image -> image.payload;
+    public static final PayloadOf<UserImageModel> USER_IMAGE = UserImageModel::getPayload;
+
+    private final PayloadOf<Model> payloadOf;
+
+    PayloadModelLoader(PayloadOf<Model> payloadOf) {
+        this.payloadOf = payloadOf;
+    }
+
+    @Nullable
+    @Override
+    public LoadData<InputStream> buildLoadData(@NonNull Model model, int width, int height, @NonNull Options options) {
+        PayloadHandle payload = payloadOf.get(model);
+        if (payload == null) return null;
+        // SIZE_ORIGINAL (negative) or unknown: no rendition covers that, ask for the original
+        boolean sized = width > 0 && height > 0;
+        int targetWidth = sized ? width : Integer.MAX_VALUE;
+        int targetHeight = sized ? height : Integer.MAX_VALUE;
+        return new LoadData<>(new ObjectKey(payload.cacheKey(targetWidth, targetHeight)),
+                new Fetcher(payload, targetWidth, targetHeight));
+    }
+
+    @Override
+    public boolean handles(@NonNull Model model) {
+        return payloadOf.get(model) != null;
+    }
+
+    public static class Factory<Model> implements ModelLoaderFactory<Model, InputStream> {
+
+        private final PayloadOf<Model> payloadOf;
+
+        public Factory(PayloadOf<Model> payloadOf) {
+            this.payloadOf = payloadOf;
+        }
+
+        @NonNull
+        @Override
+        public ModelLoader<Model, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new PayloadModelLoader<>(payloadOf);
+        }
+
+        @Override
+        public void teardown() {}
+    }
+
+    private static class Fetcher implements DataFetcher<InputStream> {
+
+        private final PayloadHandle payload;
+        private final int targetWidth;
+        private final int targetHeight;
+        private volatile boolean cancelled;
+        private InputStream stream;
+
+        Fetcher(PayloadHandle payload, int targetWidth, int targetHeight) {
+            this.payload = payload;
+            this.targetWidth = targetWidth;
+            this.targetHeight = targetHeight;
+        }
+
+        @Override
+        public void loadData(@NonNull Priority priority, @NonNull DataCallback<? super InputStream> callback) {
+            payload.resolve(targetWidth, targetHeight, new PayloadHandle.Callback() {
+                @Override
+                public void onReady(Object model) {
+                    if (cancelled) return;
+                    // Disk hits are read straight from the mapping, without a copy
+                    stream = model instanceof ByteBuffer
+                            ? ByteBufferUtil.toStream((ByteBuffer) model)
+                            : new ByteArrayInputStream((byte[]) model);
+                    callback.onDataReady(stream);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    callback.onLoadFailed(e);
+                }
+            });
+        }
+
+        @Override
+        public void cleanup() {
+            if (stream == null) return;
+            try {
+                stream.close();
+            } catch (IOException ignored) {}
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @NonNull
+        @Override
+        public Class<InputStream> getDataClass() {
+            return InputStream.class;
+        }
+
+        @NonNull
+        @Override
+        public DataSource getDataSource() {
+            // The payload tiers already keep the source bytes; let Glide cache the decoded resource
+            return DataSource.LOCAL;
+        }
+    }
+}
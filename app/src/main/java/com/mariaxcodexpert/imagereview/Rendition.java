@@ -0,0 +1,67 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A downscaled copy of an image generated at upload time and stored next to the
+ * original, recorded under the node's {@code renditions/{name}} with its dimensions.
+ *
+ * Views ask for their own size and get the smallest rendition that covers it (see
+ * {@link #pick}); the original is only fetched when none does.
+ */
+public final class Rendition {
+
+    public static final String THUMB = "thumb";
+    public static final String REVIEW = "review";
+    // Short edge in px; views are centerCrop, so a rendition must cover both view axes
+    public static final int THUMB_SHORT_EDGE = 400;
+    public static final int REVIEW_SHORT_EDGE = 1280;
+
+    public final String name;
+    public final String storagePath;
+    public final int width;
+    public final int height;
+    public final long sizeBytes;
+
+    public Rendition(String name, String storagePath, int width, int height, long sizeBytes) {
+        this.name = name;
+        this.storagePath = storagePath;
+        this.width = width;
+        this.height = height;
+        this.sizeBytes = sizeBytes;
+    }
+
+    /**
+     * Smallest rendition at least as large as the target on both axes, or null if
+     * only the original will do. A non-positive target dimension is ignored.
+     */
+    public static Rendition pick(List<Rendition> renditions, int targetWidth, int targetHeight) {
+        Rendition best = null;
+        for (Rendition r : renditions) {
+            if (r.width < targetWidth || r.height < targetHeight) continue;
+            if (best == null || (long) r.width * r.height < (long) best.width * best.height) best = r;
+        }
+        return best;
+    }
+
+    /**
+     * Cache key of a rendition; the original keeps the bare imageId
+     */
+    public static String cacheKey(String imageId, String name) {
+        return imageId + "@" + name;
+    }
+
+    /**
+     * Fields for the node's {@code renditions/{name}} child
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(ImageNode.STORAGE_PATH, storagePath);
+        map.put(ImageNode.WIDTH, width);
+        map.put(ImageNode.HEIGHT, height);
+        map.put(ImageNode.SIZE_BYTES, sizeBytes);
+        return map;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What a reviewer did to an image: a reaction, a rating with text, a skip, or a
+ * combination once several pending actions are coalesced by {@link ReviewJournal}.
+ *
+ * {@link #toUpdate()} turns it into a single multi-path update relative to the database
+ * root: the reviewer's entry under the image's reviews, the aggregate stats, the review
+ * queue count and the reviewer's interaction index. The server applies all of it or
+ * none of it, so a partially saved review cannot exist.
+ *
+ * The aggregate increments are the only part that is not idempotent. database.rules.json
+ * accepts them only in the write that creates the reviewer's {@code reviews/{uid}} entry,
+ * so a replay of an action the server already committed is rejected; once {@link ReviewJournal}
+ * has confirmed that entry exists it re-sends the action without them ({@link #putInto(Map, boolean)}).
+ */
+public final class ReviewAction {
+
+    public final String ownerUid;
+    public final String imageId;
+    public final String reviewerUid;
+    public final String reaction; // null if none
+    public final Integer rating;  // null if not rated
+    public final String text;     // with rating only
+    public final boolean skipped;
+
+    ReviewAction(String ownerUid, String imageId, String reviewerUid,
+                 String reaction, Integer rating, String text, boolean skipped) {
+        this.ownerUid = ownerUid;
+        this.imageId = imageId;
+        this.reviewerUid = reviewerUid;
+        this.reaction = reaction;
+        this.rating = rating;
+        this.text = text;
+        this.skipped = skipped;
+    }
+
+    public static ReviewAction reaction(HybridImageSelector.ImageData image, String reviewerUid, String reaction) {
+        return new ReviewAction(image.uid, image.imageId, reviewerUid, reaction, null, null, false);
+    }
+
+    public static ReviewAction review(HybridImageSelector.ImageData image, String reviewerUid, int rating, String text) {
+        return new ReviewAction(image.uid, image.imageId, reviewerUid, null, rating, text, false);
+    }
+
+    public static ReviewAction skip(HybridImageSelector.ImageData image, String reviewerUid) {
+        return new ReviewAction(image.uid, image.imageId, reviewerUid, null, null, null, true);
+    }
+
+    /**
+     * Identifies actions that supersede each other: same image, same reviewer
+     */
+    public String key() {
+        return ownerUid + "/" + imageId + "/" + reviewerUid;
+    }
+
+    /**
+     * This action followed by a later one on the same key, as a single write.
+     * The later reaction and rating win; a skip stands only if nothing else was done.
+     */
+    public ReviewAction merge(ReviewAction later) {
+        String mergedReaction = later.reaction != null ? later.reaction : reaction;
+        boolean laterRated = later.rating != null;
+        Integer mergedRating = laterRated ? later.rating : rating;
+        String mergedText = laterRated ? later.text : text;
+        boolean mergedSkipped = (skipped || later.skipped) && mergedReaction == null && mergedRating == null;
+        return new ReviewAction(ownerUid, imageId, reviewerUid, mergedReaction, mergedRating, mergedText, mergedSkipped);
+    }
+
+    public Map<String, Object> toUpdate() {
+        Map<String, Object> update = new HashMap<>();
+        putInto(update, true);
+        return update;
+    }
+
+    /**
+     * Adds this action's paths to a batch; actions with different keys never collide
+     *
+     * @param counted include the count and sum increments; false once the server has
+     *                shown the review already exists, leaving only idempotent sets
+     */
+    public void putInto(Map<String, Object> update, boolean counted) {
+        String review = ImageNode.path(ownerUid, imageId) + "/" + ImageNode.REVIEWS + "/" + reviewerUid + "/";
+        if (reaction != null) update.put(review + "reaction", reaction);
+        if (rating != null) {
+            update.put(review + "rating", rating);
+            update.put(review + "text", text);
+            if (counted) ReviewStats.addRating(update, ownerUid, imageId, rating);
+        }
+        if (skipped) update.put(review + "skipped", true);
+        if (counted) ImageIndex.addReview(update, imageId);
+        InteractionIndex.add(update, reviewerUid, imageId);
+    }
+}
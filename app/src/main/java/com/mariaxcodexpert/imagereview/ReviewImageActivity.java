@@ -1,6 +1,8 @@
 package com.mariaxcodexpert.imagereview;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.animation.AlphaAnimation;
 import android.view.animation.Animation;
@@ -13,6 +15,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.ContextCompat;
 
 import com.bumptech.glide.Glide;
 import com.bumptech.glide.load.engine.GlideException;
@@ -20,10 +23,12 @@ import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.target.Target;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
@@ -32,6 +37,19 @@ import java.util.List;
 public class ReviewImageActivity extends AppCompatActivity {
 
     private static final String TAG = "ReviewImage";
+    private static final long RETRY_MIN_MS = 2_000;
+    private static final long RETRY_MAX_MS = 60_000;
+
+    /** Optional {@link SelectionStrategy} name for this review session */
+    public static final String EXTRA_SELECTION_STRATEGY = "selection_strategy";
+    /** Optional; false waits for the server to acknowledge each action before moving on */
+    public static final String EXTRA_OPTIMISTIC_ADVANCE = "optimistic_advance";
+    /** Optional number of upcoming images to keep decoded, 0 turns prefetching off */
+    public static final String EXTRA_LOOKAHEAD_DEPTH = "lookahead_depth";
+    private static final int DEFAULT_LOOKAHEAD_DEPTH = 3;
+    private static final int WINDOW_SIZE = 30;      // feed high-water mark
+    private static final int LOW_WATER_MARK = 10;   // refill below this many queued images
+    private static final int REVIEW_COUNT_WINDOW = 2 * WINDOW_SIZE; // least-reviewed index entries watched live
 
     private ImageView imgReview, btnHeart, btnSmile, btnLike;
     private ProgressBar progressBar;
@@ -41,9 +59,22 @@ public class ReviewImageActivity extends AppCompatActivity {
 
     private FirebaseUser currentUser;
     private DatabaseReference dbRef;
-
-    private HybridImageSelector imageSelector;
+    private InteractedImageStore interactedStore;
+    private ReviewSubmitter submitter;
+    private DatabaseReference connectedRef;
+    private ValueEventListener connectedListener;
+    private final Handler retryHandler = new Handler(Looper.getMainLooper());
+    private final Runnable retrySync = () -> submitter.retry();
+    private long retryDelayMs = RETRY_MIN_MS;
+
+    private ConcurrentHybridImageSelector imageSelector;
     private final List<String> skippedImages = new ArrayList<>();
+    private Query reviewCountWindow;
+    private ChildEventListener reviewCountListener;
+    private CandidateFeed candidateFeed;
+    private ReviewPrefetcher prefetcher;
+    private boolean waitingForImages = false; // nothing on screen until the feed delivers
+    private boolean anyImageShown = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,7 +85,7 @@ public class ReviewImageActivity extends AppCompatActivity {
             bindUI();
             setupFirebase();
             setupListeners();
-            loadImagesFromCacheOrFirebase();
+            loadImages();
         } catch (Exception e) {
             Log.e(TAG, "Error in onCreate", e);
             Toast.makeText(this, "Unexpected error occurred", Toast.LENGTH_SHORT).show();
@@ -62,6 +93,23 @@ public class ReviewImageActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (interactedStore != null) interactedStore.flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (reviewCountListener != null) reviewCountWindow.removeEventListener(reviewCountListener);
+        if (candidateFeed != null) candidateFeed.close();
+        if (prefetcher != null) prefetcher.close();
+        if (connectedListener != null) connectedRef.removeEventListener(connectedListener);
+        retryHandler.removeCallbacks(retrySync);
+        if (submitter != null) submitter.detach();
+        super.onDestroy();
+    }
+
     private void bindUI() {
         imgReview = findViewById(R.id.imgReview);
         progressBar = findViewById(R.id.progressBar);
@@ -82,8 +130,74 @@ public class ReviewImageActivity extends AppCompatActivity {
             finish();
             return;
         }
-        dbRef = FirebaseDatabase.getInstance("https://imagereview397-default-rtdb.firebaseio.com/")
+        dbRef = FirebaseDatabase.getInstance(ImageReviewApp.DATABASE_URL)
                 .getReference("users");
+        interactedStore = InteractedImageStore.getInstance(this, currentUser.getUid());
+        setupJournal();
+    }
+
+    /**
+     * Routes review writes through the on-disk journal; whatever an earlier session left
+     * unsent is replayed as soon as the database reports a connection.
+     */
+    private void setupJournal() {
+        DatabaseReference root = dbRef.getRoot();
+        ReviewJournal journal = ReviewJournal.getInstance(this, currentUser.getUid());
+        journal.setSender((update, callback) -> root.updateChildren(update, (error, ref) -> {
+            if (error == null) callback.onSuccess();
+            else if (error.getCode() == DatabaseError.PERMISSION_DENIED) callback.onRejected(error.toException());
+            else callback.onFailure(error.toException());
+        }));
+        journal.setLookup((action, callback) -> root.child(ImageNode.path(action.ownerUid, action.imageId))
+                .child(ImageNode.REVIEWS).child(action.reviewerUid).get()
+                .addOnSuccessListener(review -> callback.onResult(review.exists()))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Review lookup failed", e);
+                    callback.onResult(false);
+                }));
+        // By default the next image shows as soon as the action is journaled, not after the server ack
+        boolean optimistic = getIntent().getBooleanExtra(EXTRA_OPTIMISTIC_ADVANCE, true);
+        submitter = new ReviewSubmitter(journal, optimistic, new ReviewSubmitter.Listener() {
+            @Override
+            public void onSaved(List<ReviewAction> actions) {
+                retryDelayMs = RETRY_MIN_MS;
+                for (ReviewAction action : actions) {
+                    if (action.rating != null) {
+                        ReviewStats.refreshAverage(dbRef.child(action.ownerUid)
+                                .child("images").child(action.imageId));
+                    }
+                }
+            }
+
+            @Override
+            public void onSaveFailed(boolean awaited, Exception e) {
+                if (awaited) {
+                    Toast.makeText(ReviewImageActivity.this, "Action failed, try again", Toast.LENGTH_SHORT).show();
+                    setButtonsEnabled(true);
+                    return;
+                }
+                if (retryDelayMs == RETRY_MIN_MS) {
+                    Toast.makeText(ReviewImageActivity.this, "Couldn't save a review, retrying", Toast.LENGTH_SHORT).show();
+                }
+                retryHandler.removeCallbacks(retrySync);
+                retryHandler.postDelayed(retrySync, retryDelayMs);
+                retryDelayMs = Math.min(retryDelayMs * 2, RETRY_MAX_MS);
+            }
+        });
+
+        connectedRef = FirebaseDatabase.getInstance(ImageReviewApp.DATABASE_URL).getReference(".info/connected");
+        connectedListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (Boolean.TRUE.equals(snapshot.getValue(Boolean.class))) submitter.retry();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "connection state listener cancelled", error.toException());
+            }
+        };
+        connectedRef.addValueEventListener(connectedListener);
     }
 
     private void setupListeners() {
@@ -95,80 +209,100 @@ public class ReviewImageActivity extends AppCompatActivity {
         btnSkip.setOnClickListener(v -> skipImage());
     }
 
-    private void loadImagesFromCacheOrFirebase() {
+    /**
+     * Starts with an empty queue; the feed's first page is the only read of the index, and
+     * the screen shows a spinner until it arrives
+     */
+    private void loadImages() {
         try {
-            List<HybridImageSelector.ImageData> cached = ImageCache.getInstance().getImages();
-            if (!cached.isEmpty()) {
-                imageSelector = new HybridImageSelector(cached, skippedImages, currentUser.getUid(), 30);
-                displayCurrentImage();
-            } else {
-                loadImagesFromFirebase();
-            }
+            imageSelector = new ConcurrentHybridImageSelector(new HybridImageSelector(
+                    new ArrayList<>(), skippedImages, currentUser.getUid(), newStrategy()));
+            prefetcher = new ReviewPrefetcher(Glide.with(this), imageSelector, imgReview,
+                    getIntent().getIntExtra(EXTRA_LOOKAHEAD_DEPTH, DEFAULT_LOOKAHEAD_DEPTH));
+            candidateFeed = new CandidateFeed(imageSelector,
+                    new FirebaseCandidateSource(this, dbRef.getRoot(), currentUser.getUid(), interactedStore),
+                    LOW_WATER_MARK, WINDOW_SIZE, feedListener, ContextCompat.getMainExecutor(this));
+            listenForReviewCounts();
+            candidateFeed.refill();
+            displayCurrentImage();
         } catch (Exception e) {
-            Log.e(TAG, "loadImagesFromCacheOrFirebase error", e);
+            Log.e(TAG, "loadImages error", e);
             Toast.makeText(this, "Failed to load images", Toast.LENGTH_SHORT).show();
             finish();
         }
     }
 
-    private void loadImagesFromFirebase() {
-        try {
-            dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    try {
-                        List<HybridImageSelector.ImageData> pool = new ArrayList<>();
-                        for (DataSnapshot userSnapshot : snapshot.getChildren()) {
-                            String uid = userSnapshot.getKey();
-                            if (uid.equals(currentUser.getUid())) continue;
-                            if (!userSnapshot.hasChild("images")) continue;
-
-                            for (DataSnapshot imageSnap : userSnapshot.child("images").getChildren()) {
-                                String imageEncoded = imageSnap.child("image").getValue(String.class);
-                                if (imageEncoded == null || imageEncoded.isEmpty()) continue;
-
-                                int reviewCount = (int) imageSnap.child("reviews").getChildrenCount();
-                                boolean alreadyReviewed = imageSnap.hasChild("reviews") &&
-                                        imageSnap.child("reviews").hasChild(currentUser.getUid());
-
-                                Boolean skipped = null;
-                                if (alreadyReviewed)
-                                    skipped = imageSnap.child("reviews").child(currentUser.getUid())
-                                            .child("skipped").getValue(Boolean.class);
-
-                                if ((skipped != null && skipped) || alreadyReviewed) continue;
-
-                                pool.add(new HybridImageSelector.ImageData(
-                                        uid, imageSnap.getKey(), imageEncoded, reviewCount, false));
-                            }
-                        }
+    private SelectionStrategy newStrategy() {
+        String name = getIntent().getStringExtra(EXTRA_SELECTION_STRATEGY);
+        return SelectionStrategy.forName(name, WINDOW_SIZE);
+    }
 
-                        if (pool.isEmpty()) {
-                            Toast.makeText(ReviewImageActivity.this, "No images to review", Toast.LENGTH_SHORT).show();
-                            finish();
-                            return;
-                        }
+    private final CandidateFeed.Listener feedListener = new CandidateFeed.Listener() {
+        @Override
+        public void onFeedChanged() {
+            if (waitingForImages) {
+                displayCurrentImage();
+            } else if (anyImageShown) {
+                prefetcher.update(); // the look-ahead may have been cut short by an empty queue
+            }
+        }
 
-                        imageSelector = new HybridImageSelector(pool, skippedImages, currentUser.getUid(), 30);
-                        displayCurrentImage();
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing Firebase snapshot", e);
-                        Toast.makeText(ReviewImageActivity.this, "Failed to process images", Toast.LENGTH_SHORT).show();
-                        finish();
-                    }
-                }
+        @Override
+        public void onFeedError(Exception e) {
+            Log.e(TAG, "Firebase load failed", e);
+            if (waitingForImages) {
+                Toast.makeText(ReviewImageActivity.this, "Failed to load images", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        }
+    };
+
+    /**
+     * Keeps the selector's queue least-reviewed-first while other users review.
+     * Watches only the least-reviewed window of the image index, so the cost does
+     * not grow with the catalog; an image pushed out of the window is re-read once.
+     */
+    private void listenForReviewCounts() {
+        reviewCountWindow = ImageIndex.ref(dbRef.getRoot())
+                .orderByChild(ImageIndex.REVIEW_COUNT)
+                .limitToFirst(REVIEW_COUNT_WINDOW);
+        reviewCountListener = new ChildEventListener() {
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot entry, String previousChildName) {
+                applyReviewCount(entry.getKey(), entry.child(ImageIndex.REVIEW_COUNT));
+            }
 
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.e(TAG, "Firebase load cancelled", error.toException());
-                    Toast.makeText(ReviewImageActivity.this, "Failed to load images", Toast.LENGTH_SHORT).show();
-                    finish();
-                }
-            });
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot entry, String previousChildName) {
+                applyReviewCount(entry.getKey(), entry.child(ImageIndex.REVIEW_COUNT));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot entry) {
+                // Left the window, usually because its count went up
+                entry.getRef().child(ImageIndex.REVIEW_COUNT).get()
+                        .addOnSuccessListener(count -> applyReviewCount(entry.getKey(), count));
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {}
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Review count listener cancelled", error.toException());
+            }
+        };
+        reviewCountWindow.addChildEventListener(reviewCountListener);
+    }
+
+    private void applyReviewCount(String imageId, DataSnapshot count) {
+        try {
+            if (imageSelector == null || isDestroyed()) return;
+            Long value = count.getValue(Long.class);
+            // Through the inbox, behind any page insert of the same image still pending
+            if (value != null) imageSelector.offerReviewCount(imageId, value.intValue());
         } catch (Exception e) {
-            Log.e(TAG, "loadImagesFromFirebase error", e);
-            Toast.makeText(this, "Failed to load images", Toast.LENGTH_SHORT).show();
-            finish();
+            Log.e(TAG, "Review count update error", e);
         }
     }
 
@@ -176,13 +310,28 @@ public class ReviewImageActivity extends AppCompatActivity {
         try {
             HybridImageSelector.ImageData imageData = imageSelector.peekNextImage();
             if (imageData == null) {
-                Toast.makeText(this, "All images reviewed", Toast.LENGTH_SHORT).show();
+                if (candidateFeed.isLoading() || !candidateFeed.isExhausted()) {
+                    // Wait for the next page; onFeedChanged() calls back here
+                    waitingForImages = true;
+                    progressBar.setVisibility(android.view.View.VISIBLE);
+                    imgReview.setVisibility(android.view.View.INVISIBLE);
+                    setButtonsEnabled(false);
+                    candidateFeed.refill();
+                    return;
+                }
+                Toast.makeText(this, anyImageShown ? "All images reviewed" : "No images to review",
+                        Toast.LENGTH_SHORT).show();
                 finish();
                 return;
             }
+            waitingForImages = false;
+            anyImageShown = true;
 
-            progressBar.setVisibility(android.view.View.VISIBLE);
-            imgReview.setVisibility(android.view.View.INVISIBLE);
+            // A prefetched image is swapped in from memory, keep the old one up until then
+            if (!prefetcher.isReady(imageData.imageId)) {
+                progressBar.setVisibility(android.view.View.VISIBLE);
+                imgReview.setVisibility(android.view.View.INVISIBLE);
+            }
             setButtonsEnabled(false);
 
             btnHeart.setAlpha(0.4f);
@@ -191,17 +340,39 @@ public class ReviewImageActivity extends AppCompatActivity {
             ratingBar.setRating(0);
             etReview.setText("");
 
-            String base64Uri = "data:image/png;base64," + imageData.imageBase64.replaceAll("\\s+", "");
-            Glide.with(this)
-                    .load(base64Uri)
-                    .centerCrop()
+            if (imageData.payload == null) {
+                onPayloadFailed(new IllegalStateException("No payload for " + imageData.imageId));
+                return;
+            }
+            showImage(imageData);
+
+        } catch (Exception e) {
+            Log.e(TAG, "displayCurrentImage error", e);
+            progressBar.setVisibility(android.view.View.GONE);
+            setButtonsEnabled(false);
+            Toast.makeText(this, "Error displaying image", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void onPayloadFailed(Exception e) {
+        progressBar.setVisibility(android.view.View.GONE);
+        Toast.makeText(this, "Failed to load image", Toast.LENGTH_SHORT).show();
+        setButtonsEnabled(false);
+        Log.e(TAG, "Payload load failed", e);
+    }
+
+    /**
+     * Glide loads the image through {@link PayloadModelLoader}, keyed by imageId and the
+     * rendition that covers the view; a newer request into the view cancels this one.
+     * Once it is up the prefetcher loads the images after it.
+     */
+    private void showImage(HybridImageSelector.ImageData imageData) {
+        try {
+            ReviewPrefetcher.request(Glide.with(this), imageData)
                     .listener(new RequestListener<android.graphics.drawable.Drawable>() {
                         @Override
                         public boolean onLoadFailed(GlideException e, Object model, Target<android.graphics.drawable.Drawable> target, boolean isFirstResource) {
-                            progressBar.setVisibility(android.view.View.GONE);
-                            Toast.makeText(ReviewImageActivity.this, "Failed to load image", Toast.LENGTH_SHORT).show();
-                            setButtonsEnabled(false);
-                            Log.e(TAG, "Glide load failed", e);
+                            onPayloadFailed(e != null ? e : new IllegalStateException("Glide load failed"));
                             return false;
                         }
 
@@ -209,15 +380,16 @@ public class ReviewImageActivity extends AppCompatActivity {
                         public boolean onResourceReady(android.graphics.drawable.Drawable resource, Object model, Target<android.graphics.drawable.Drawable> target, com.bumptech.glide.load.DataSource dataSource, boolean isFirstResource) {
                             progressBar.setVisibility(android.view.View.GONE);
                             imgReview.setVisibility(android.view.View.VISIBLE);
-                            fadeIn(imgReview);
+                            if (dataSource != com.bumptech.glide.load.DataSource.MEMORY_CACHE) fadeIn(imgReview);
                             setButtonsEnabled(true);
+                            prefetcher.update();
                             return false;
                         }
                     })
                     .into(imgReview);
 
         } catch (Exception e) {
-            Log.e(TAG, "displayCurrentImage error", e);
+            Log.e(TAG, "showImage error", e);
             progressBar.setVisibility(android.view.View.GONE);
             setButtonsEnabled(false);
             Toast.makeText(this, "Error displaying image", Toast.LENGTH_SHORT).show();
@@ -244,35 +416,37 @@ public class ReviewImageActivity extends AppCompatActivity {
         btnLike.setAlpha(enabled && btnLike.getAlpha() == 1f ? 1f : 0.4f);
     }
 
-    private void safeFirebaseWrite(DatabaseReference ref, Object value, Runnable onSuccess) {
+    /**
+     * Journals the action and moves on: immediately in optimistic mode, otherwise once the
+     * server acknowledges it. The journal sends it as one multi-path update, so it is saved
+     * completely or not at all. The buttons come back when the next image is on screen
+     * (showImage), never before.
+     */
+    private void submitAction(ReviewAction action, Runnable onSuccess) {
         try {
             setButtonsEnabled(false);
-            ref.setValue(value)
-                    .addOnSuccessListener(aVoid -> {
-                        try {
-                            onSuccess.run();
-                        } catch (Exception e) {
-                            Log.e(TAG, "onSuccess Runnable error", e);
-                        } finally {
-                            setButtonsEnabled(true);
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Firebase write failed", e);
-                        Toast.makeText(this, "Action failed, try again", Toast.LENGTH_SHORT).show();
-                        setButtonsEnabled(true);
-                    });
+            interactedStore.add(action.imageId);
+            submitter.submit(action, () -> {
+                try {
+                    onSuccess.run();
+                } catch (Exception e) {
+                    Log.e(TAG, "onSuccess Runnable error", e);
+                    setButtonsEnabled(true);
+                }
+            });
         } catch (Exception e) {
-            Log.e(TAG, "safeFirebaseWrite error", e);
+            Log.e(TAG, "submitAction error", e);
             Toast.makeText(this, "Unexpected error during action", Toast.LENGTH_SHORT).show();
             setButtonsEnabled(true);
         }
     }
 
+    /**
+     * Shows the next image; the action that got here already took the current one out of the queue
+     */
     private void nextImage() {
         try {
-            HybridImageSelector.ImageData currentImage = imageSelector.peekNextImage();
-            if (currentImage != null) imageSelector.markImageInteracted(currentImage);
+            candidateFeed.refill();
             displayCurrentImage();
         } catch (Exception e) {
             Log.e(TAG, "nextImage error", e);
@@ -285,15 +459,11 @@ public class ReviewImageActivity extends AppCompatActivity {
             HybridImageSelector.ImageData imageData = imageSelector.peekNextImage();
             if (imageData == null) return;
 
-            safeFirebaseWrite(dbRef.child(imageData.uid)
-                            .child("images").child(imageData.imageId)
-                            .child("reviews").child(currentUser.getUid())
-                            .child("reaction"),
-                    reaction, () -> {
-                        imageSelector.markImageInteracted(imageData);
-                        highlightSelectedEmoji(clickedBtn);
-                        nextImage();
-                    });
+            submitAction(ReviewAction.reaction(imageData, currentUser.getUid(), reaction), () -> {
+                imageSelector.markImageInteracted(imageData);
+                highlightSelectedEmoji(clickedBtn);
+                nextImage();
+            });
 
         } catch (Exception e) {
             Log.e(TAG, "submitReaction error", e);
@@ -307,23 +477,17 @@ public class ReviewImageActivity extends AppCompatActivity {
             HybridImageSelector.ImageData imageData = imageSelector.peekNextImage();
             if (imageData == null) return;
 
-            float rating = ratingBar.getRating();
+            int rating = (int) ratingBar.getRating();
+            if (rating < 1) { // database.rules.json only accepts 1 to 5
+                Toast.makeText(this, "Pick a rating first", Toast.LENGTH_SHORT).show();
+                return;
+            }
             String reviewText = etReview.getText().toString();
 
-            safeFirebaseWrite(dbRef.child(imageData.uid)
-                            .child("images").child(imageData.imageId)
-                            .child("reviews").child(currentUser.getUid())
-                            .child("rating"),
-                    (int) rating, () -> {});
-
-            safeFirebaseWrite(dbRef.child(imageData.uid)
-                            .child("images").child(imageData.imageId)
-                            .child("reviews").child(currentUser.getUid())
-                            .child("text"),
-                    reviewText, () -> {
-                        imageSelector.markImageInteracted(imageData);
-                        nextImage();
-                    });
+            submitAction(ReviewAction.review(imageData, currentUser.getUid(), rating, reviewText), () -> {
+                imageSelector.markImageInteracted(imageData);
+                nextImage();
+            });
 
         } catch (Exception e) {
             Log.e(TAG, "submitReview error", e);
@@ -337,14 +501,11 @@ public class ReviewImageActivity extends AppCompatActivity {
             HybridImageSelector.ImageData imageData = imageSelector.peekNextImage();
             if (imageData == null) return;
 
-            skippedImages.add(imageData.imageId);
-            imageSelector.skipImage(imageData);
-
-            safeFirebaseWrite(dbRef.child(imageData.uid)
-                            .child("images").child(imageData.imageId)
-                            .child("reviews").child(currentUser.getUid())
-                            .child("skipped"),
-                    true, this::nextImage);
+            submitAction(ReviewAction.skip(imageData, currentUser.getUid()), () -> {
+                skippedImages.add(imageData.imageId);
+                imageSelector.skipImage(imageData);
+                nextImage();
+            });
 
         } catch (Exception e) {
             Log.e(TAG, "skipImage error", e);
@@ -0,0 +1,422 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only on-disk journal of {@link ReviewAction}s waiting for the server.
+ *
+ * Every action is appended (one ACT line) before anything goes over the network, so
+ * nothing is lost if the process dies. Pending actions on the same image coalesce into
+ * one final write, and up to {@link #MAX_BATCH} images are replayed as a single
+ * multi-path update whenever {@link #flush()} runs. Acknowledged actions get an ACK
+ * line; the journal is compacted to the pending ACT lines on open and after enough ACKs.
+ *
+ * A multi-path update is all-or-nothing, so after a failed batch images are sent one
+ * at a time until one succeeds; an image the server keeps rejecting is dropped after
+ * {@link #MAX_ATTEMPTS} so it cannot hold up the rest of the journal.
+ *
+ * If the process dies after the server committed a batch but before its ACK line was
+ * written, the batch is replayed on the next start. The server's rules reject the
+ * replayed count increments ({@link ReviewAction}). A rejected image is looked up
+ * through the {@link ReviewLookup}: if the reviewer's entry is already there it is
+ * re-sent once without the increments, so counts are never applied twice; otherwise
+ * the rejection had another cause (an expired token, say) and it fails like any write.
+ */
+public class ReviewJournal {
+
+    private static final String TAG = "ReviewJournal";
+    private static final String ACT = "ACT";
+    private static final String ACK = "ACK";
+    private static final String END = ".";  // last token of a complete line
+    private static final String NULL = "~"; // never produced by URLEncoder
+    private static final int MAX_BATCH = 50;
+    private static final int MAX_ATTEMPTS = 5; // per image, once isolated in its own batch
+    private static final int COMPACT_AFTER_ACKS = 200;
+
+    /**
+     * Delivers one batch; the callback may come on any thread
+     */
+    public interface Sender {
+        void send(Map<String, Object> update, SendCallback callback);
+    }
+
+    public interface SendCallback {
+        void onSuccess();
+
+        void onFailure(Exception e);
+
+        /**
+         * The server's rules refused the write, e.g. a replayed review that is already counted
+         */
+        void onRejected(Exception e);
+    }
+
+    /**
+     * Tells whether the server already has the reviewer's entry for an action's image
+     */
+    public interface ReviewLookup {
+        void exists(ReviewAction action, LookupCallback callback);
+    }
+
+    public interface LookupCallback {
+        /**
+         * @param exists false as well when the lookup itself failed
+         */
+        void onResult(boolean exists);
+    }
+
+    public interface Listener {
+        /**
+         * The server accepted these (coalesced) actions
+         */
+        void onFlushed(List<ReviewAction> actions);
+
+        /**
+         * The batch stays in the journal and is retried on the next flush, unless an image
+         * in it was rejected too often and dropped
+         *
+         * @param actions the (coalesced) actions of the failed batch
+         */
+        void onFlushFailed(List<ReviewAction> actions, Exception e);
+    }
+
+    private static ReviewJournal instance;
+
+    private final File file;
+    private final LinkedHashMap<String, List<Record>> pending = new LinkedHashMap<>(); // by key, oldest first
+    private final Set<String> inFlight = new HashSet<>();
+    private final Map<String, Integer> failures = new HashMap<>();
+    private final Set<String> alreadyCounted = new HashSet<>(); // keys sent without increments
+    private int batchLimit = MAX_BATCH;
+    private long nextSeq = 0;
+    private int ackLines = 0;
+    private Writer journal;
+    private Sender sender;
+    private ReviewLookup lookup;
+    private Listener listener;
+    private boolean sending = false;
+
+    ReviewJournal(File file) {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Journal for the signed-in user; switching users opens that user's file.
+     */
+    public static synchronized ReviewJournal getInstance(Context context, String uid) {
+        File file = new File(context.getFilesDir(), "review_journal_" + uid + ".log");
+        if (instance == null || !instance.file.equals(file)) {
+            instance = new ReviewJournal(file);
+        }
+        return instance;
+    }
+
+    public synchronized void setSender(Sender sender) {
+        this.sender = sender;
+    }
+
+    public synchronized void setLookup(ReviewLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Durably records the action; call {@link #flush()} to send it
+     */
+    public synchronized void append(ReviewAction action) {
+        Record record = new Record(nextSeq++, action);
+        appendLine(encode(record));
+        List<Record> records = pending.get(action.key());
+        if (records == null) {
+            records = new ArrayList<>(1);
+            pending.put(action.key(), records);
+        }
+        records.add(record);
+    }
+
+    public synchronized boolean isPending(String key) {
+        return pending.containsKey(key);
+    }
+
+    /**
+     * Number of images with unsent actions
+     */
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Sends the next batch unless one is already on its way; keeps going until the
+     * journal is empty or a batch fails
+     */
+    public void flush() {
+        Batch batch;
+        Sender target;
+        synchronized (this) {
+            if (sender == null || sending) return;
+            batch = takeBatch();
+            if (batch == null) return;
+            sending = true;
+            target = sender;
+        }
+        target.send(batch.update, new SendCallback() {
+            @Override
+            public void onSuccess() {
+                Listener notify;
+                synchronized (ReviewJournal.this) {
+                    acknowledge(batch);
+                    batchLimit = MAX_BATCH;
+                    sending = false;
+                    notify = listener;
+                }
+                if (notify != null) notify.onFlushed(batch.actions);
+                flush();
+            }
+
+            @Override
+            public void onRejected(Exception e) {
+                ReviewAction only;
+                ReviewLookup check;
+                synchronized (ReviewJournal.this) {
+                    only = batch.actions.size() == 1 ? batch.actions.get(0) : null;
+                    check = only != null && !alreadyCounted.contains(only.key()) ? lookup : null;
+                }
+                if (check == null) {
+                    onFailure(e); // isolates a multi-image batch, counts attempts for a single one
+                    return;
+                }
+                check.exists(only, exists -> {
+                    if (!exists) {
+                        onFailure(e); // refused for another reason, the counts are still owed
+                        return;
+                    }
+                    synchronized (ReviewJournal.this) {
+                        alreadyCounted.add(only.key());
+                        inFlight.remove(only.key());
+                        sending = false;
+                    }
+                    Log.w(TAG, "Review already on the server, re-sending without counts", e);
+                    flush();
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Listener notify;
+                synchronized (ReviewJournal.this) {
+                    inFlight.removeAll(batch.maxSeqByKey.keySet());
+                    if (batch.actions.size() > 1) batchLimit = 1;
+                    else giveUpIfRejected(batch);
+                    sending = false;
+                    notify = listener;
+                }
+                Log.e(TAG, "Batch of " + batch.actions.size() + " failed, kept for retry", e);
+                if (notify != null) notify.onFlushFailed(batch.actions, e);
+            }
+        });
+    }
+
+    private Batch takeBatch() {
+        Batch batch = new Batch();
+        for (Map.Entry<String, List<Record>> entry : pending.entrySet()) {
+            if (batch.actions.size() >= batchLimit) break;
+            if (inFlight.contains(entry.getKey())) continue;
+
+            List<Record> records = entry.getValue();
+            ReviewAction merged = records.get(0).action;
+            for (int i = 1; i < records.size(); i++) merged = merged.merge(records.get(i).action);
+            merged.putInto(batch.update, !alreadyCounted.contains(entry.getKey()));
+            batch.actions.add(merged);
+            batch.maxSeqByKey.put(entry.getKey(), records.get(records.size() - 1).seq);
+        }
+        if (batch.actions.isEmpty()) return null;
+        inFlight.addAll(batch.maxSeqByKey.keySet());
+        return batch;
+    }
+
+    private void acknowledge(Batch batch) {
+        for (Map.Entry<String, Long> acked : batch.maxSeqByKey.entrySet()) {
+            removeUpTo(acked.getKey(), acked.getValue());
+            inFlight.remove(acked.getKey());
+            failures.remove(acked.getKey());
+            alreadyCounted.remove(acked.getKey());
+            appendLine(ACK + " " + enc(acked.getKey()) + " " + acked.getValue() + " " + END);
+            ackLines++;
+        }
+        if (ackLines >= COMPACT_AFTER_ACKS && inFlight.isEmpty()) compact();
+    }
+
+    private void giveUpIfRejected(Batch batch) {
+        Map.Entry<String, Long> only = batch.maxSeqByKey.entrySet().iterator().next();
+        Integer failed = failures.get(only.getKey());
+        int attempts = failed != null ? failed + 1 : 1;
+        if (attempts < MAX_ATTEMPTS) {
+            failures.put(only.getKey(), attempts);
+            return;
+        }
+        Log.e(TAG, "Dropping " + only.getKey() + " after " + attempts + " rejected writes");
+        failures.remove(only.getKey());
+        alreadyCounted.remove(only.getKey());
+        removeUpTo(only.getKey(), only.getValue());
+        appendLine(ACK + " " + enc(only.getKey()) + " " + only.getValue() + " " + END);
+        ackLines++;
+    }
+
+    /**
+     * Drops the records a batch covered; actions appended while it was in flight stay
+     */
+    private void removeUpTo(String key, long seq) {
+        List<Record> records = pending.get(key);
+        if (records == null) return;
+        Iterator<Record> it = records.iterator();
+        while (it.hasNext()) {
+            if (it.next().seq <= seq) it.remove();
+        }
+        if (records.isEmpty()) pending.remove(key);
+    }
+
+    // =====================
+    // File
+    // =====================
+
+    private void open() {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) Log.e(TAG, "cannot create " + dir);
+
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) replay(line);
+            } catch (IOException e) {
+                Log.e(TAG, "journal unreadable, keeping what was read", e);
+            }
+        }
+        compact();
+    }
+
+    private void replay(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length == 0 || !END.equals(parts[parts.length - 1])) return; // torn write
+        try {
+            if (ACT.equals(parts[0]) && parts.length == 10) {
+                long seq = Long.parseLong(parts[1]);
+                ReviewAction action = new ReviewAction(dec(parts[2]), dec(parts[3]), dec(parts[4]),
+                        dec(parts[5]), NULL.equals(parts[6]) ? null : Integer.valueOf(parts[6]),
+                        dec(parts[8]), "1".equals(parts[7]));
+                List<Record> records = pending.get(action.key());
+                if (records == null) {
+                    records = new ArrayList<>(1);
+                    pending.put(action.key(), records);
+                }
+                records.add(new Record(seq, action));
+                nextSeq = Math.max(nextSeq, seq + 1);
+            } else if (ACK.equals(parts[0]) && parts.length == 4) {
+                removeUpTo(dec(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException ignored) {
+            // malformed line, skip it
+        }
+    }
+
+    private void appendLine(String line) {
+        try {
+            if (journal == null) journal = new BufferedWriter(new FileWriter(file, true));
+            journal.write(line);
+            journal.write('\n');
+            journal.flush(); // into the OS, so it survives the process dying
+        } catch (IOException e) {
+            Log.e(TAG, "journal append failed", e);
+        }
+    }
+
+    /**
+     * Rewrites the journal as the pending ACT lines, oldest first
+     */
+    private void compact() {
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            File tmp = new File(file.getPath() + ".tmp");
+            try (Writer out = new BufferedWriter(new FileWriter(tmp))) {
+                for (List<Record> records : pending.values()) {
+                    for (Record record : records) {
+                        out.write(encode(record));
+                        out.write('\n');
+                    }
+                }
+            }
+            if (!tmp.renameTo(file)) Log.e(TAG, "journal rename failed");
+            ackLines = 0;
+        } catch (IOException e) {
+            Log.e(TAG, "journal compaction failed", e);
+        }
+    }
+
+    private static String encode(Record record) {
+        ReviewAction a = record.action;
+        return ACT + " " + record.seq + " " + enc(a.ownerUid) + " " + enc(a.imageId) + " "
+                + enc(a.reviewerUid) + " " + enc(a.reaction) + " "
+                + (a.rating != null ? a.rating.toString() : NULL) + " " + (a.skipped ? "1" : "0") + " "
+                + enc(a.text) + " " + END;
+    }
+
+    private static String enc(String value) {
+        if (value == null) return NULL;
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String dec(String token) {
+        if (NULL.equals(token)) return null;
+        try {
+            return URLDecoder.decode(token, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Record {
+        final long seq;
+        final ReviewAction action;
+
+        Record(long seq, ReviewAction action) {
+            this.seq = seq;
+            this.action = action;
+        }
+    }
+
+    private static final class Batch {
+        final Map<String, Object> update = new HashMap<>();
+        final List<ReviewAction> actions = new ArrayList<>();
+        final Map<String, Long> maxSeqByKey = new HashMap<>();
+    }
+}
@@ -0,0 +1,137 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.target.CustomTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Look-ahead for the review screen: keeps the next few candidates fetched and decoded
+ * at the size of the review view, so advancing swaps in a held drawable instead of
+ * waiting for the network and a decode.
+ *
+ * Candidates come from {@link HybridImageSelector#peekNextImages}, which fixes their
+ * order. Each is loaded with the same Glide request the screen shows with and held
+ * until it drops out of the look-ahead, e.g. once it was skipped or shown. Main thread only.
+ */
+public class ReviewPrefetcher {
+
+    private static final String TAG = "ReviewPrefetcher";
+
+    private final RequestManager glide;
+    private final ConcurrentHybridImageSelector selector;
+    private final View view;
+    private final int depth;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(); // imageId -> held load
+
+    /**
+     * @param view  the view images are shown in; prefetches are sized to it
+     * @param depth images held beyond the current one, 0 turns prefetching off
+     */
+    public ReviewPrefetcher(RequestManager glide, ConcurrentHybridImageSelector selector, View view, int depth) {
+        this.glide = glide;
+        this.selector = selector;
+        this.view = view;
+        this.depth = Math.max(0, depth);
+    }
+
+    /**
+     * The request the screen shows with; a prefetch is only a cache hit if it matches
+     */
+    public static RequestBuilder<Drawable> request(RequestManager glide, HybridImageSelector.ImageData image) {
+        return glide.load(image).centerCrop();
+    }
+
+    /**
+     * True if the image is decoded and held, so showing it is a memory-cache hit
+     */
+    public boolean isReady(String imageId) {
+        Entry entry = entries.get(imageId);
+        return entry != null && entry.ready;
+    }
+
+    /**
+     * Loads the images after the current one up to the look-ahead depth and releases
+     * held ones that left it. Call once the current image is on screen, so prefetches
+     * never compete with it; the view holds the current image from then on.
+     */
+    public void update() {
+        int width = view.getWidth() - view.getPaddingLeft() - view.getPaddingRight();
+        int height = view.getHeight() - view.getPaddingTop() - view.getPaddingBottom();
+        if (width <= 0 || height <= 0) return; // not laid out yet
+
+        List<HybridImageSelector.ImageData> upcoming = selector.peekNextImages(depth + 1);
+        Set<String> wanted = new HashSet<>();
+        for (int i = 1; i < upcoming.size(); i++) wanted.add(upcoming.get(i).imageId);
+
+        Iterator<Entry> held = entries.values().iterator();
+        while (held.hasNext()) {
+            Entry entry = held.next();
+            if (wanted.contains(entry.imageId)) continue;
+            held.remove();
+            glide.clear(entry);
+        }
+
+        for (int i = 1; i < upcoming.size(); i++) {
+            HybridImageSelector.ImageData image = upcoming.get(i);
+            if (image.payload == null || entries.containsKey(image.imageId)) continue;
+            Entry entry = new Entry(image.imageId, width, height);
+            entries.put(image.imageId, entry); // before into(): a failure may be reported synchronously
+            request(glide, image).priority(Priority.LOW).into(entry);
+        }
+    }
+
+    /**
+     * Releases everything held
+     */
+    public void close() {
+        for (Entry entry : entries.values()) glide.clear(entry);
+        entries.clear();
+    }
+
+    /**
+     * Holds the decoded drawable, keeping it in Glide's active resources until cleared
+     */
+    private class Entry extends CustomTarget<Drawable> {
+
+        final String imageId;
+        boolean ready;
+
+        Entry(String imageId, int width, int height) {
+            super(width, height);
+            this.imageId = imageId;
+        }
+
+        @Override
+        public void onResourceReady(@NonNull Drawable resource, @Nullable Transition<? super Drawable> transition) {
+            ready = true;
+        }
+
+        @Override
+        public void onLoadCleared(@Nullable Drawable placeholder) {
+            ready = false;
+        }
+
+        @Override
+        public void onLoadFailed(@Nullable Drawable errorDrawable) {
+            // The screen loads it again when it comes up and reports the error there
+            Log.e(TAG, "Prefetch failed for " + imageId);
+            if (entries.get(imageId) == this) entries.remove(imageId);
+        }
+    }
+}
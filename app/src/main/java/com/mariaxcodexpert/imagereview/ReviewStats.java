@@ -0,0 +1,89 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+
+import java.util.Map;
+
+/**
+ * Aggregate review stats kept under {@code users/{uid}/images/{imageId}/stats}:
+ * reviewCount, ratingSum and avgRating. Count and sum move by server-side increments
+ * inside the review's own multi-path write ({@link ReviewAction}), so concurrent
+ * reviewers never overwrite each other; avgRating is then re-derived from them with
+ * runTransaction. Readers fetch three scalars instead of iterating the whole reviews
+ * subtree. The stats live in their own child so the transaction never downloads the
+ * reviews map.
+ */
+public final class ReviewStats {
+
+    private static final String TAG = "ReviewStats";
+
+    public static final String NODE = "stats";
+    public static final String REVIEW_COUNT = "reviewCount";
+    public static final String RATING_SUM = "ratingSum";
+    public static final String AVG_RATING = "avgRating";
+
+    private ReviewStats() {}
+
+    public static DatabaseReference ref(DatabaseReference imageRef) {
+        return imageRef.child(NODE);
+    }
+
+    /**
+     * Adds one rating's count and sum increments to a multi-path update relative to the root
+     */
+    public static void addRating(Map<String, Object> update, String ownerUid, String imageId, int rating) {
+        String stats = ImageNode.path(ownerUid, imageId) + "/" + NODE + "/";
+        update.put(stats + REVIEW_COUNT, ServerValue.increment(1));
+        update.put(stats + RATING_SUM, ServerValue.increment(rating));
+    }
+
+    /**
+     * Re-derives avgRating from the stored count and sum; the server retries on contention
+     */
+    public static void refreshAverage(DatabaseReference imageRef) {
+        ref(imageRef).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                write(current, read(current));
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                if (error != null) Log.e(TAG, "Stats transaction failed", error.toException());
+            }
+        });
+    }
+
+    /**
+     * @param stats the {@link #NODE} snapshot, may be missing
+     */
+    public static ReviewTotals fromSnapshot(DataSnapshot stats) {
+        if (stats == null || !stats.exists()) return ReviewTotals.EMPTY;
+        return ReviewTotals.of(stats.child(REVIEW_COUNT).getValue(Long.class),
+                stats.child(RATING_SUM).getValue(Long.class));
+    }
+
+    private static ReviewTotals read(MutableData stats) {
+        return ReviewTotals.of(stats.child(REVIEW_COUNT).getValue(Long.class),
+                stats.child(RATING_SUM).getValue(Long.class));
+    }
+
+    private static void write(MutableData stats, ReviewTotals totals) {
+        stats.child(REVIEW_COUNT).setValue(totals.reviewCount);
+        stats.child(RATING_SUM).setValue(totals.ratingSum);
+        stats.child(AVG_RATING).setValue(totals.averageRating());
+    }
+}
@@ -0,0 +1,77 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Live {@link ReviewTotals} of one owner's images, keyed by imageId.
+ *
+ * Each image gets one subscription to its three-scalar {@link ReviewStats} node,
+ * attached once when the image is listed rather than on every bind, so scrolling the
+ * grid reads nothing. Grid cells read from this map only; {@link Listener} hears about
+ * an image only when its totals actually changed.
+ */
+public class ReviewStatsMap {
+
+    private static final String TAG = "ReviewStatsMap";
+
+    public interface Listener {
+        void onStatsChanged(String imageId);
+    }
+
+    private final DatabaseReference imagesRef;
+    private final Listener listener;
+    private final Map<String, ReviewTotals> totals = new HashMap<>();
+    private final Map<String, ValueEventListener> subscriptions = new HashMap<>();
+
+    /**
+     * @param imagesRef {@code users/{uid}/images}
+     */
+    public ReviewStatsMap(DatabaseReference imagesRef, Listener listener) {
+        this.imagesRef = imagesRef;
+        this.listener = listener;
+    }
+
+    public ReviewTotals get(String imageId) {
+        ReviewTotals known = totals.get(imageId);
+        return known != null ? known : ReviewTotals.EMPTY;
+    }
+
+    /**
+     * Keeps the image's totals current until {@link #close()}; watching twice is a no-op
+     */
+    public void watch(String imageId) {
+        if (subscriptions.containsKey(imageId)) return;
+        ValueEventListener subscription = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                ReviewTotals fresh = ReviewStats.fromSnapshot(snapshot);
+                if (fresh.equals(totals.put(imageId, fresh))) return;
+                listener.onStatsChanged(imageId);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "stats subscription for " + imageId + " cancelled", error.toException());
+            }
+        };
+        subscriptions.put(imageId, subscription);
+        ReviewStats.ref(imagesRef.child(imageId)).addValueEventListener(subscription);
+    }
+
+    public void close() {
+        for (Map.Entry<String, ValueEventListener> entry : subscriptions.entrySet()) {
+            ReviewStats.ref(imagesRef.child(entry.getKey())).removeEventListener(entry.getValue());
+        }
+        subscriptions.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.List;
+
+/**
+ * Decides when the review screen may move on after an action.
+ *
+ * In optimistic mode the action only has to reach the {@link ReviewJournal}; the
+ * server write finishes in the background, failures stay journaled and are reported
+ * without blocking anything. Otherwise the caller waits for the server to acknowledge
+ * its action, which costs at least one network round-trip per review.
+ */
+public class ReviewSubmitter {
+
+    public interface Listener {
+        /**
+         * The server has these actions
+         */
+        void onSaved(List<ReviewAction> actions);
+
+        /**
+         * @param awaited true if the failed write carried the action the caller is waiting
+         *                on (non-optimistic mode), which must re-enable its controls; false
+         *                for any other write, which stays journaled for retry
+         */
+        void onSaveFailed(boolean awaited, Exception e);
+    }
+
+    private final ReviewJournal journal;
+    private final boolean optimistic;
+    private final Listener listener;
+    private String awaitedKey;
+    private Runnable onAwaitedSaved;
+
+    public ReviewSubmitter(ReviewJournal journal, boolean optimistic, Listener listener) {
+        this.journal = journal;
+        this.optimistic = optimistic;
+        this.listener = listener;
+        journal.setListener(new ReviewJournal.Listener() {
+            @Override
+            public void onFlushed(List<ReviewAction> actions) {
+                onJournalFlushed(actions);
+            }
+
+            @Override
+            public void onFlushFailed(List<ReviewAction> actions, Exception e) {
+                onJournalFailed(actions, e);
+            }
+        });
+    }
+
+    public boolean isOptimistic() {
+        return optimistic;
+    }
+
+    /**
+     * Journals the action and starts sending it. {@code onDone} runs right away in
+     * optimistic mode, otherwise once the server has acknowledged the action.
+     */
+    public void submit(ReviewAction action, Runnable onDone) {
+        journal.append(action);
+        if (optimistic) {
+            journal.flush();
+            onDone.run();
+            return;
+        }
+        synchronized (this) {
+            awaitedKey = action.key();
+            onAwaitedSaved = onDone;
+        }
+        journal.flush();
+    }
+
+    /**
+     * Sends whatever is still journaled, e.g. after a failure or on reconnect
+     */
+    public void retry() {
+        journal.flush();
+    }
+
+    public void detach() {
+        journal.setListener(null);
+    }
+
+    private void onJournalFlushed(List<ReviewAction> actions) {
+        listener.onSaved(actions);
+        Runnable done;
+        synchronized (this) {
+            if (awaitedKey == null || journal.isPending(awaitedKey)) return;
+            done = onAwaitedSaved;
+            awaitedKey = null;
+            onAwaitedSaved = null;
+        }
+        done.run();
+    }
+
+    /**
+     * Releases the caller only if its own action failed: it was in the failed batch, or it
+     * was dropped from the journal. A failed replay of some other action leaves it waiting.
+     */
+    private void onJournalFailed(List<ReviewAction> actions, Exception e) {
+        boolean awaited;
+        synchronized (this) {
+            awaited = awaitedKey != null && (!journal.isPending(awaitedKey) || containsKey(actions, awaitedKey));
+            if (awaited) {
+                awaitedKey = null;
+                onAwaitedSaved = null;
+            }
+        }
+        listener.onSaveFailed(awaited, e);
+    }
+
+    private static boolean containsKey(List<ReviewAction> actions, String key) {
+        for (ReviewAction action : actions) {
+            if (action.key().equals(key)) return true;
+        }
+        return false;
+    }
+}
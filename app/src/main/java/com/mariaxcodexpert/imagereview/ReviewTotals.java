@@ -0,0 +1,49 @@
+package com.mariaxcodexpert.imagereview;
+
+/**
+ * Immutable review aggregate of one image: number of ratings and their sum.
+ * The average is derived, so the three stored scalars can never disagree.
+ * Pure value type, read from the stored {@link ReviewStats} node.
+ */
+public final class ReviewTotals {
+
+    public static final ReviewTotals EMPTY = new ReviewTotals(0, 0);
+
+    public final long reviewCount;
+    public final long ratingSum;
+
+    public ReviewTotals(long reviewCount, long ratingSum) {
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+    }
+
+    /**
+     * @param reviewCount stored value, null if the image has no stats yet
+     * @param ratingSum   stored value, null if the image has no stats yet
+     */
+    public static ReviewTotals of(Long reviewCount, Long ratingSum) {
+        if (reviewCount == null || ratingSum == null) return EMPTY;
+        return new ReviewTotals(reviewCount, ratingSum);
+    }
+
+    public double averageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : 0.0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ReviewTotals)) return false;
+        ReviewTotals other = (ReviewTotals) obj;
+        return reviewCount == other.reviewCount && ratingSum == other.ratingSum;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (31 * reviewCount + ratingSum);
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewTotals[count=" + reviewCount + ", sum=" + ratingSum + "]";
+    }
+}
@@ -0,0 +1,40 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.Random;
+
+/**
+ * Policy used by {@link HybridImageSelector} to pick the next image among eligible candidates.
+ * The selector handles ownership, skips and duplicates; a strategy only sees eligible images.
+ * Implementations keep add/remove/update/pick at O(log n) or better.
+ */
+public interface SelectionStrategy {
+
+    String LEAST_REVIEWED = "least_reviewed";
+    String INVERSE_REVIEW_WEIGHTED = "inverse_review_weighted";
+    String FRESHNESS_DECAY = "freshness_decay";
+
+    void add(HybridImageSelector.Candidate candidate);
+
+    void remove(HybridImageSelector.Candidate candidate);
+
+    /**
+     * Called after candidate.image.reviewCount changed while the image is eligible
+     */
+    void update(HybridImageSelector.Candidate candidate);
+
+    /**
+     * @return a candidate without removing it, or null if none are left
+     */
+    HybridImageSelector.Candidate pick(Random random);
+
+    int size();
+
+    /**
+     * Builds a strategy by name, e.g. from an Intent extra; unknown names fall back to least-reviewed
+     */
+    static SelectionStrategy forName(String name, int windowSize) {
+        if (INVERSE_REVIEW_WEIGHTED.equals(name)) return new InverseReviewWeightedStrategy();
+        if (FRESHNESS_DECAY.equals(name)) return new FreshnessDecayStrategy(System.currentTimeMillis());
+        return new LeastReviewedStrategy(windowSize);
+    }
+}
@@ -0,0 +1,101 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.auth.FirebaseUser;
+
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Child keys of a database location without their subtrees, through the REST API's
+ * {@code shallow=true}. The Android SDK has no shallow reads, and a listing of legacy
+ * image nodes would otherwise download every Base64 payload just to learn the imageIds.
+ * Requests carry the user's ID token, so the database rules apply as for the SDK.
+ */
+final class ShallowListing {
+
+    private static final int TIMEOUT_MILLIS = 30_000;
+    private static final int EMULATOR_PORT = 9000;
+    private static final ExecutorService http = Executors.newSingleThreadExecutor();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    interface Callback {
+        /**
+         * Called on the main thread; keys in String order, empty if the location has none
+         */
+        void onKeys(List<String> keys);
+
+        void onError(Exception e);
+    }
+
+    private ShallowListing() {}
+
+    /**
+     * @param path location relative to the database root, e.g. {@code users/{uid}/images}
+     */
+    static void childKeys(FirebaseUser user, String path, Callback callback) {
+        user.getIdToken(false)
+                .addOnSuccessListener(token -> http.execute(() -> {
+                    try {
+                        List<String> keys = fetch(url(path, token.getToken()));
+                        mainHandler.post(() -> callback.onKeys(keys));
+                    } catch (Exception e) {
+                        mainHandler.post(() -> callback.onError(e));
+                    }
+                }))
+                .addOnFailureListener(callback::onError);
+    }
+
+    private static URL url(String path, String idToken) throws IOException {
+        String query = ".json?shallow=true&auth=" + URLEncoder.encode(idToken, "UTF-8");
+        String emulator = BuildConfig.FIREBASE_EMULATOR_HOST;
+        if (emulator == null || emulator.isEmpty()) return new URL(ImageReviewApp.DATABASE_URL + path + query);
+
+        String host = Uri.parse(ImageReviewApp.DATABASE_URL).getHost();
+        String namespace = host.substring(0, host.indexOf('.'));
+        return new URL("http://" + emulator + ":" + EMULATOR_PORT + "/" + path + query + "&ns=" + namespace);
+    }
+
+    private static List<String> fetch(URL url) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("shallow read failed: HTTP " + connection.getResponseCode());
+            }
+            String body;
+            try (InputStream in = connection.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) out.write(buffer, 0, n);
+                body = out.toString("UTF-8").trim();
+            }
+            if (body.equals("null")) return Collections.emptyList();
+
+            JSONObject children = new JSONObject(body);
+            List<String> keys = new ArrayList<>(children.length());
+            for (Iterator<String> it = children.keys(); it.hasNext(); ) keys.add(it.next());
+            Collections.sort(keys);
+            return keys;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
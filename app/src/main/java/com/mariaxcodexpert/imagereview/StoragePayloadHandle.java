@@ -0,0 +1,96 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.Context;
+
+import com.google.firebase.storage.FirebaseStorage;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Payload of an image kept in Firebase Storage, referenced by the
+ * {@link ImageNode#STORAGE_PATH} of its database node.
+ *
+ * Resolution order: {@link ImageCache} bytes, then {@link DiskImageCache}, then Storage.
+ * Downloaded bytes are written back to both caches. Renditions are cached under their
+ * own {@link Rendition#cacheKey} and resolved the same way.
+ */
+public class StoragePayloadHandle implements PayloadHandle {
+
+    private static final long MAX_DOWNLOAD_BYTES = 10L * 1024 * 1024;
+
+    private final Context context;
+    private final String imageId;
+    private final String storagePath;
+    private final long sizeBytes;
+    private final List<Rendition> renditions;
+
+    /**
+     * @param sizeBytes size recorded in the database node, 0 if unknown
+     */
+    public StoragePayloadHandle(Context context, String imageId, String storagePath, long sizeBytes) {
+        this(context, imageId, storagePath, sizeBytes, Collections.<Rendition>emptyList());
+    }
+
+    public StoragePayloadHandle(Context context, String imageId, String storagePath, long sizeBytes,
+                                List<Rendition> renditions) {
+        this.context = context.getApplicationContext();
+        this.imageId = imageId;
+        this.storagePath = storagePath;
+        this.sizeBytes = sizeBytes;
+        this.renditions = renditions;
+    }
+
+    @Override
+    public String getImageId() {
+        return imageId;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    @Override
+    public void resolve(Callback callback) {
+        fetch(imageId, storagePath, sizeBytes, callback);
+    }
+
+    @Override
+    public void resolve(int targetWidth, int targetHeight, Callback callback) {
+        Rendition rendition = Rendition.pick(renditions, targetWidth, targetHeight);
+        if (rendition == null) {
+            resolve(callback);
+        } else {
+            fetch(Rendition.cacheKey(imageId, rendition.name), rendition.storagePath, rendition.sizeBytes, callback);
+        }
+    }
+
+    @Override
+    public String cacheKey(int targetWidth, int targetHeight) {
+        Rendition rendition = Rendition.pick(renditions, targetWidth, targetHeight);
+        return rendition == null ? imageId : Rendition.cacheKey(imageId, rendition.name);
+    }
+
+    private void fetch(String key, String path, long size, Callback callback) {
+        byte[] cached = ImageCache.getInstance().getPayload(key);
+        if (cached != null) {
+            callback.onReady(cached);
+            return;
+        }
+        ByteBuffer mapped = DiskImageCache.getInstance(context).getMapped(key);
+        if (mapped != null) {
+            callback.onReady(mapped);
+            return;
+        }
+
+        long limit = size > 0 ? size : MAX_DOWNLOAD_BYTES;
+        FirebaseStorage.getInstance().getReference(path).getBytes(limit)
+                .addOnSuccessListener(bytes -> {
+                    ImageCache.getInstance().putPayload(key, bytes);
+                    DiskImageCache.getInstance(context).putAsync(key, bytes);
+                    callback.onReady(bytes);
+                })
+                .addOnFailureListener(callback::onError);
+    }
+}
@@ -3,7 +3,7 @@ package com.mariaxcodexpert.imagereview;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.Base64;
+import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.ProgressBar;
@@ -22,12 +22,15 @@ import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class UploadImageActivity extends AppCompatActivity {
 
+    private static final String TAG = "UploadImageActivity";
     private static final int PICK_IMAGE_REQUEST = 101;
 
     private ImageView btnAddImage;
@@ -36,6 +39,7 @@ public class UploadImageActivity extends AppCompatActivity {
     private ProgressBar progressBar;
 
     private UploadImageAdapter adapter;
+    private ReviewStatsMap reviewStats;
     private ArrayList<UserImageModel> imageList = new ArrayList<>();
 
     private FirebaseUser currentUser;
@@ -51,10 +55,6 @@ public class UploadImageActivity extends AppCompatActivity {
         tvNoImages = findViewById(R.id.tvNoImages);
         progressBar = findViewById(R.id.progressBar);
 
-        rvImages.setLayoutManager(new GridLayoutManager(this, 3));
-        adapter = new UploadImageAdapter(imageList);
-        rvImages.setAdapter(adapter);
-
         currentUser = FirebaseAuth.getInstance().getCurrentUser();
 
         if (currentUser == null) {
@@ -63,14 +63,38 @@ public class UploadImageActivity extends AppCompatActivity {
             return;
         }
 
-        dbRef = FirebaseDatabase.getInstance("https://imagereview397-default-rtdb.firebaseio.com/")
+        dbRef = FirebaseDatabase.getInstance(ImageReviewApp.DATABASE_URL)
                 .getReference("users");
 
+        reviewStats = new ReviewStatsMap(dbRef.child(currentUser.getUid()).child("images"),
+                this::onStatsChanged);
+        rvImages.setLayoutManager(new GridLayoutManager(this, UploadImageAdapter.COLUMNS));
+        adapter = new UploadImageAdapter(imageList, reviewStats);
+        rvImages.setAdapter(adapter);
+
         btnAddImage.setOnClickListener(v -> openFileChooser());
 
         loadUserImagesInfo();
     }
 
+    @Override
+    protected void onDestroy() {
+        if (reviewStats != null) reviewStats.close();
+        super.onDestroy();
+    }
+
+    /**
+     * Rebinds only the cell whose totals changed
+     */
+    private void onStatsChanged(String imageId) {
+        for (int i = 0; i < imageList.size(); i++) {
+            if (imageId.equals(imageList.get(i).getImageId())) {
+                adapter.notifyItemChanged(i, UploadImageAdapter.PAYLOAD_STATS);
+                return;
+            }
+        }
+    }
+
     private void openFileChooser() {
         Intent intent = new Intent();
         intent.setType("image/*");
@@ -88,73 +112,85 @@ public class UploadImageActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Adds the cell at once and hands the bytes to {@link UploadPipeline}, which reads and
+     * sends them off the main thread
+     */
     private void uploadImage(Uri imageUri) {
         try {
-            InputStream inputStream = getContentResolver().openInputStream(imageUri);
-            if (inputStream == null) return;
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int read;
-
-            while ((read = inputStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, read);
-            }
-
-            byte[] imageBytes = baos.toByteArray();
-            String encodedImage = Base64.encodeToString(imageBytes, Base64.DEFAULT);
-
+            String uid = currentUser.getUid();
             String imageId = String.valueOf(System.currentTimeMillis());
-
-            UserImageModel tempModel = new UserImageModel(encodedImage, 0, 0.0, true, imageId, currentUser.getUid());
+            UserImageModel tempModel = new UserImageModel(
+                    new StoragePayloadHandle(this, imageId, ImageNode.storagePath(uid, imageId), 0),
+                    0, 0.0, true, imageId, uid);
 
             imageList.add(0, tempModel);
             adapter.notifyItemInserted(0);
-
-            DatabaseReference ref = dbRef.child(currentUser.getUid())
-                    .child("images").child(imageId);
-
-            ref.child("image").setValue(encodedImage);
-            ref.child("timestamp").setValue(System.currentTimeMillis())
-                    .addOnCompleteListener(task -> {
+            tvNoImages.setVisibility(View.GONE);
+
+            new UploadPipeline(this, dbRef.getRoot()).start(imageUri, uid, imageId, new UploadPipeline.Listener() {
+                @Override
+                public void onStaged() {
+                    int index = imageList.indexOf(tempModel);
+                    if (index >= 0) adapter.notifyItemChanged(index); // now served from the disk cache
+                }
+
+                @Override
+                public void onProgress(int percent) {
+                    tempModel.setUploadProgress(percent);
+                    int index = imageList.indexOf(tempModel);
+                    if (index >= 0) adapter.notifyItemChanged(index, UploadImageAdapter.PAYLOAD_PROGRESS);
+                }
+
+                @Override
+                public void onComplete(boolean success) {
+                    int index = imageList.indexOf(tempModel);
+                    if (success) {
                         tempModel.setUploading(false);
-                        adapter.notifyItemChanged(0);
-                        Toast.makeText(this, "Image Uploaded", Toast.LENGTH_SHORT).show();
-                    });
+                        reviewStats.watch(imageId);
+                        if (index >= 0) adapter.notifyItemChanged(index);
+                    } else if (index >= 0) {
+                        imageList.remove(index);
+                        adapter.notifyItemRemoved(index);
+                    }
+                    Toast.makeText(UploadImageActivity.this, success ? "Image Uploaded" : "Upload failed",
+                            Toast.LENGTH_SHORT).show();
+                }
+            });
 
         } catch (Exception e) {
+            Log.e(TAG, "uploadImage error", e);
             Toast.makeText(this, "Upload failed", Toast.LENGTH_SHORT).show();
         }
     }
 
+    /**
+     * Lists the owner's images from their {@link ImageIndex} entries, then adds any image
+     * node the index does not have yet: legacy uploads the :migration tool has not reached
+     * are found with a shallow listing and load their Base64 payload lazily.
+     */
     private void loadUserImagesInfo() {
         imageList.clear();
         progressBar.setVisibility(View.VISIBLE);
         tvNoImages.setVisibility(View.GONE);
 
-        dbRef.child(currentUser.getUid()).child("images")
+        // Index entries hold the payload reference only; totals come from the stats watches
+        ImageIndex.ownedBy(dbRef.getRoot(), currentUser.getUid())
                 .addListenerForSingleValueEvent(new com.google.firebase.database.ValueEventListener() {
                     @Override
                     public void onDataChange(DataSnapshot snapshot) {
-
-                        if (!snapshot.exists()) {
-                            tvNoImages.setVisibility(View.VISIBLE);
-                            progressBar.setVisibility(View.GONE);
-                            return;
-                        }
-
+                        Set<String> indexed = new HashSet<>();
                         for (DataSnapshot snap : snapshot.getChildren()) {
-                            String base64 = snap.child("image").getValue(String.class);
-                            if (base64 != null) {
+                            PayloadHandle payload = ImageNode.payloadOf(UploadImageActivity.this, snap);
+                            if (payload != null) {
                                 String imageId = snap.getKey();
                                 String ownerUid = currentUser.getUid();
-                                imageList.add(new UserImageModel(base64, 0, 0.0, false, imageId, ownerUid));
+                                imageList.add(new UserImageModel(payload, 0, 0.0, false, imageId, ownerUid));
+                                reviewStats.watch(imageId);
                             }
+                            indexed.add(snap.getKey());
                         }
-
-
-                        adapter.notifyDataSetChanged();
-                        progressBar.setVisibility(View.GONE);
+                        addUnindexedImages(indexed);
                     }
 
                     @Override
@@ -163,4 +199,36 @@ public class UploadImageActivity extends AppCompatActivity {
                     }
                 });
     }
+
+    private void addUnindexedImages(Set<String> indexed) {
+        String uid = currentUser.getUid();
+        DatabaseReference imagesRef = dbRef.child(uid).child("images");
+        ShallowListing.childKeys(currentUser, "users/" + uid + "/images", new ShallowListing.Callback() {
+            @Override
+            public void onKeys(List<String> keys) {
+                if (isDestroyed()) return;
+                for (String imageId : keys) {
+                    if (indexed.contains(imageId)) continue;
+                    PayloadHandle payload = new FirebasePayloadHandle(UploadImageActivity.this, imageId,
+                            imagesRef.child(imageId), null);
+                    imageList.add(new UserImageModel(payload, 0, 0.0, false, imageId, uid));
+                    reviewStats.watch(imageId);
+                }
+                Collections.sort(imageList, (a, b) -> a.getImageId().compareTo(b.getImageId()));
+                showImages();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Listing images outside the index failed", e);
+                if (!isDestroyed()) showImages();
+            }
+        });
+    }
+
+    private void showImages() {
+        adapter.notifyDataSetChanged();
+        progressBar.setVisibility(View.GONE);
+        tvNoImages.setVisibility(imageList.isEmpty() ? View.VISIBLE : View.GONE);
+    }
 }
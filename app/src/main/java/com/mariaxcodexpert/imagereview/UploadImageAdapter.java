@@ -1,6 +1,5 @@
 package com.mariaxcodexpert.imagereview;
 
-import android.util.Base64;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,18 +11,29 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class UploadImageAdapter extends RecyclerView.Adapter<UploadImageAdapter.ImageHolder> {
 
+    /**
+     * Partial rebind: only the review count and rating changed
+     */
+    public static final Object PAYLOAD_STATS = new Object();
+    /**
+     * Partial rebind: only the upload progress changed
+     */
+    public static final Object PAYLOAD_PROGRESS = new Object();
+
+    public static final int COLUMNS = 3;
+
     private final ArrayList<UserImageModel> list;
+    private final ReviewStatsMap stats;
 
-    public UploadImageAdapter(ArrayList<UserImageModel> list) {
+    public UploadImageAdapter(ArrayList<UserImageModel> list, ReviewStatsMap stats) {
         this.list = list;
+        this.stats = stats;
     }
 
     @NonNull
@@ -39,16 +49,16 @@ public class UploadImageAdapter extends RecyclerView.Adapter<UploadImageAdapter.
 
         UserImageModel model = list.get(position);
 
-        // Decode Base64 and load image
-        byte[] decoded = Base64.decode(model.getBase64().replaceAll("\\s+", ""), Base64.DEFAULT);
+        // Glide resolves the payload through PayloadModelLoader, keyed by imageId and the
+        // rendition that covers the cell; into() cancels whatever a recycled holder was loading
         Glide.with(holder.img.getContext())
-                .asBitmap()
-                .load(decoded)
+                .load(model)
                 .placeholder(R.drawable.placeholder)
                 .into(holder.img);
 
         // Show uploading state
         if (model.isUploading()) {
+            holder.progress.setProgress(model.getUploadProgress());
             holder.progress.setVisibility(View.VISIBLE);
             holder.overlay.setVisibility(View.VISIBLE);
         } else {
@@ -56,29 +66,28 @@ public class UploadImageAdapter extends RecyclerView.Adapter<UploadImageAdapter.
             holder.overlay.setVisibility(View.GONE);
         }
 
-        // Load live review & rating from Firebase
-        if (model.getImageId() != null && model.getOwnerUid() != null) {
-            DatabaseReference reviewRef = FirebaseDatabase.getInstance()
-                    .getReference("users")
-                    .child(model.getOwnerUid())
-                    .child("images")
-                    .child(model.getImageId())
-                    .child("reviews");
-
-            reviewRef.addListenerForSingleValueEvent(new com.google.firebase.database.ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    model.updateStatsFromFirebase(snapshot);
-                    holder.tvReviews.setText("Reviews: " + model.getReviewCount());
-                    holder.tvRating.setText("⭐ " + model.getAverageRating());
-                }
-
-                @Override
-                public void onCancelled(@NonNull com.google.firebase.database.DatabaseError error) {
-                    holder.tvReviews.setText("Reviews: 0");
-                    holder.tvRating.setText("⭐ 0.0");
-                }
-            });
+        bindStats(holder, model);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ImageHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        // Partial rebind, the image itself is unchanged
+        if (payloads.contains(PAYLOAD_STATS)) bindStats(holder, list.get(position));
+        if (payloads.contains(PAYLOAD_PROGRESS)) holder.progress.setProgress(list.get(position).getUploadProgress());
+    }
+
+    /**
+     * Review count and rating come from the shared stats map, never from a per-cell read
+     */
+    private void bindStats(ImageHolder holder, UserImageModel model) {
+        if (model.getImageId() != null && !model.isUploading()) {
+            ReviewTotals totals = stats.get(model.getImageId());
+            holder.tvReviews.setText("Reviews: " + totals.reviewCount);
+            holder.tvRating.setText("⭐ " + String.format("%.1f", totals.averageRating()));
         } else {
             holder.tvReviews.setText("Reviews: " + model.getReviewCount());
             holder.tvRating.setText("⭐ " + model.getAverageRating());
@@ -0,0 +1,320 @@
+package com.mariaxcodexpert.imagereview;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Uploads a picked image without reading it on the main thread or holding it in memory.
+ *
+ * A background thread reads the dimensions from the file header, streams a local copy
+ * into {@link DiskImageCache}, so the grid can show the image straight away, and encodes
+ * the {@link Rendition}s. Camera photos are often stored sideways with an EXIF
+ * orientation tag; BitmapFactory ignores it and the JPEG re-encode drops it, so the
+ * renditions are turned upright before scaling and all recorded dimensions are the
+ * upright ones. Storage then streams the same content Uri up in chunks and
+ * reports the bytes sent; the renditions follow. Finally the image node and its
+ * review-queue entry are written in one multi-path update. Listener calls arrive on
+ * the main thread.
+ */
+public class UploadPipeline {
+
+    private static final String TAG = "UploadPipeline";
+    private static final ExecutorService io = Executors.newSingleThreadExecutor();
+    private static final int RENDITION_JPEG_QUALITY = 85;
+
+    public interface Listener {
+        /**
+         * The local copy is in the disk cache; rebinding the cell shows it
+         */
+        void onStaged();
+
+        void onProgress(int percent);
+
+        void onComplete(boolean success);
+    }
+
+    private final Context context;
+    private final DatabaseReference root;
+    private final Handler main = new Handler(Looper.getMainLooper());
+
+    public UploadPipeline(Context context, DatabaseReference root) {
+        this.context = context.getApplicationContext();
+        this.root = root;
+    }
+
+    public void start(Uri imageUri, String uid, String imageId, Listener listener) {
+        io.execute(() -> {
+            ContentResolver resolver = context.getContentResolver();
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            boolean staged;
+            int orientation;
+            List<Encoded> renditions;
+            try (InputStream header = resolver.openInputStream(imageUri)) {
+                if (header == null) throw new IOException("no stream for " + imageUri);
+                BitmapFactory.decodeStream(header, null, bounds); // header only, no pixels
+                staged = DiskImageCache.getInstance(context).putStream(imageId, resolver.openInputStream(imageUri));
+                File stagedFile = staged ? DiskImageCache.getInstance(context).getFile(imageId) : null;
+                orientation = readOrientation(resolver, imageUri, stagedFile);
+                renditions = encodeRenditions(resolver, imageUri, bounds.outWidth, bounds.outHeight, orientation);
+                for (Encoded r : renditions) {
+                    DiskImageCache.getInstance(context).put(Rendition.cacheKey(imageId, r.name), r.bytes);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Could not read " + imageUri, e);
+                main.post(() -> listener.onComplete(false));
+                return;
+            }
+
+            String contentType = resolver.getType(imageUri);
+            boolean sideways = isTransposed(orientation);
+            int width = sideways ? bounds.outHeight : bounds.outWidth;
+            int height = sideways ? bounds.outWidth : bounds.outHeight;
+            main.post(() -> {
+                if (staged) listener.onStaged();
+                upload(imageUri, contentType, uid, imageId, width, height, renditions, listener);
+            });
+        });
+    }
+
+    /**
+     * @param width  upright width, after the EXIF orientation
+     * @param height upright height
+     */
+    private void upload(Uri imageUri, String contentType, String uid, String imageId,
+                        int width, int height, List<Encoded> renditions, Listener listener) {
+        String storagePath = ImageNode.storagePath(uid, imageId);
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType(contentType)
+                .build();
+
+        // Bytes go to Storage; the database node only references them
+        FirebaseStorage.getInstance().getReference(storagePath)
+                .putFile(imageUri, metadata)
+                .addOnProgressListener(snapshot -> {
+                    long total = snapshot.getTotalByteCount();
+                    if (total > 0) listener.onProgress((int) (100 * snapshot.getBytesTransferred() / total));
+                })
+                .addOnSuccessListener(snapshot -> uploadRenditions(uid, imageId, renditions, uploaded -> {
+                    long sizeBytes = snapshot.getTotalByteCount();
+                    long timestamp = System.currentTimeMillis();
+                    String nodePath = ImageNode.path(uid, imageId) + "/";
+                    Map<String, Object> update = ImageIndex.newEntry(uid, imageId, storagePath,
+                            sizeBytes, timestamp, uploaded);
+                    update.put(nodePath + ImageNode.STORAGE_PATH, storagePath);
+                    update.put(nodePath + ImageNode.SIZE_BYTES, sizeBytes);
+                    update.put(nodePath + ImageNode.WIDTH, width);
+                    update.put(nodePath + ImageNode.HEIGHT, height);
+                    update.put(nodePath + ImageNode.TIMESTAMP, timestamp);
+                    if (!uploaded.isEmpty()) update.put(nodePath + ImageNode.RENDITIONS, uploaded);
+
+                    // Image node and review-queue entry land together or not at all
+                    root.updateChildren(update)
+                            .addOnCompleteListener(task -> listener.onComplete(task.isSuccessful()));
+                }))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Storage upload failed", e);
+                    DiskImageCache.getInstance(context).remove(imageId);
+                    listener.onComplete(false);
+                });
+    }
+
+    /**
+     * Uploads the encoded renditions side by side. One that fails is left out of the node,
+     * and readers fall back to the original.
+     */
+    private void uploadRenditions(String uid, String imageId, List<Encoded> renditions,
+                                  RenditionsCallback callback) {
+        List<Task<UploadTask.TaskSnapshot>> tasks = new ArrayList<>();
+        for (Encoded r : renditions) {
+            StorageMetadata metadata = new StorageMetadata.Builder().setContentType("image/jpeg").build();
+            tasks.add(FirebaseStorage.getInstance().getReference(ImageNode.storagePath(uid, imageId, r.name))
+                    .putBytes(r.bytes, metadata));
+        }
+        Tasks.whenAllComplete(tasks).addOnCompleteListener(done -> {
+            Map<String, Object> uploaded = new HashMap<>();
+            for (int i = 0; i < renditions.size(); i++) {
+                Encoded r = renditions.get(i);
+                if (tasks.get(i).isSuccessful()) {
+                    uploaded.put(r.name, new Rendition(r.name, ImageNode.storagePath(uid, imageId, r.name),
+                            r.width, r.height, r.bytes.length).toMap());
+                } else {
+                    Log.e(TAG, "Rendition " + r.name + " upload failed", tasks.get(i).getException());
+                }
+            }
+            callback.onUploaded(uploaded);
+        });
+    }
+
+    /**
+     * EXIF orientation of the image, read from the staged copy when there is one so the
+     * content Uri is not opened a third time; ORIENTATION_NORMAL if it has none
+     */
+    static int readOrientation(ContentResolver resolver, Uri uri, File staged) {
+        try {
+            if (staged != null) {
+                return new ExifInterface(staged.getPath())
+                        .getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            }
+            try (InputStream in = resolver.openInputStream(uri)) {
+                if (in == null) return ExifInterface.ORIENTATION_NORMAL;
+                return new ExifInterface(in)
+                        .getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read EXIF of " + uri, e);
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * True if the orientation swaps width and height
+     */
+    static boolean isTransposed(int orientation) {
+        return orientation == ExifInterface.ORIENTATION_ROTATE_90
+                || orientation == ExifInterface.ORIENTATION_ROTATE_270
+                || orientation == ExifInterface.ORIENTATION_TRANSPOSE
+                || orientation == ExifInterface.ORIENTATION_TRANSVERSE;
+    }
+
+    /**
+     * Review-size and thumbnail JPEGs. Decodes once at a power-of-two sample size near the
+     * largest rendition, turns the result upright, then scales down from there; an original
+     * already below a rendition's size gets no copy of that size.
+     *
+     * @param width       raw width from the file header
+     * @param height      raw height from the file header
+     * @param orientation EXIF orientation, see {@link #readOrientation}
+     */
+    static List<Encoded> encodeRenditions(ContentResolver resolver, Uri uri, int width, int height,
+                                          int orientation) throws IOException {
+        List<Encoded> encoded = new ArrayList<>();
+        int shortEdge = Math.min(width, height);
+        if (shortEdge <= Rendition.THUMB_SHORT_EDGE) return encoded; // the original is thumbnail-sized
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        int target = Math.min(shortEdge, Rendition.REVIEW_SHORT_EDGE);
+        options.inSampleSize = sampleSize(shortEdge, target);
+        Bitmap decoded;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) return encoded;
+        decoded = upright(decoded, orientation);
+
+        Bitmap review = scaleToShortEdge(decoded, Rendition.REVIEW_SHORT_EDGE);
+        if (shortEdge > Rendition.REVIEW_SHORT_EDGE) encoded.add(encode(Rendition.REVIEW, review));
+        Bitmap thumb = scaleToShortEdge(review, Rendition.THUMB_SHORT_EDGE);
+        encoded.add(encode(Rendition.THUMB, thumb));
+
+        thumb.recycle();
+        if (review != decoded) review.recycle();
+        decoded.recycle();
+        return encoded;
+    }
+
+    /**
+     * Applies the EXIF orientation; recycles the source if a new bitmap was made
+     */
+    private static Bitmap upright(Bitmap source, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                return source;
+        }
+        Bitmap rotated = Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if (rotated != source) source.recycle();
+        return rotated;
+    }
+
+    /**
+     * Largest power of two that keeps the decoded short edge at or above the target
+     */
+    private static int sampleSize(int shortEdge, int target) {
+        int sample = 1;
+        while (shortEdge / (sample * 2) >= target) sample *= 2;
+        return sample;
+    }
+
+    private static Bitmap scaleToShortEdge(Bitmap source, int shortEdge) {
+        int current = Math.min(source.getWidth(), source.getHeight());
+        if (current <= shortEdge) return source;
+        float scale = (float) shortEdge / current;
+        return Bitmap.createScaledBitmap(source, Math.round(source.getWidth() * scale),
+                Math.round(source.getHeight() * scale), true);
+    }
+
+    private static Encoded encode(String name, Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, RENDITION_JPEG_QUALITY, out);
+        return new Encoded(name, out.toByteArray(), bitmap.getWidth(), bitmap.getHeight());
+    }
+
+    private interface RenditionsCallback {
+        void onUploaded(Map<String, Object> renditions);
+    }
+
+    static final class Encoded {
+        final String name;
+        final byte[] bytes;
+        final int width;
+        final int height;
+
+        Encoded(String name, byte[] bytes, int width, int height) {
+            this.name = name;
+            this.bytes = bytes;
+            this.width = width;
+            this.height = height;
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package com.mariaxcodexpert.imagereview;
 
-import com.google.firebase.database.DataSnapshot;
-
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Model class for user images.
- * Includes Base64 image, review count, average rating, and upload state.
+ * Includes review count, average rating, upload state and a lazily resolved
+ * image payload, so lists only hold metadata.
  * Now supports real-time updates from Firebase snapshot.
  */
 public class UserImageModel {
 
-    private String base64Image;
+    private PayloadHandle payload;
     private int reviewCount;
     private double avgRating;
     private boolean isUploading; // true if image is currently uploading
+    private int uploadProgress;  // percent of bytes sent while uploading
     private String imageId;      // Firebase image key
     private String ownerUid;     // User ID of the image owner
     private String id;
@@ -23,27 +23,27 @@ public class UserImageModel {
     /**
      * Constructor for existing images loaded from Firebase.
      *
-     * @param base64Image Base64 encoded image
+     * @param payload     Lazily resolved image bytes
      * @param reviewCount Number of reviews (default 0)
      * @param avgRating   Average rating (default 0.0)
      */
-    public UserImageModel(String base64Image, int reviewCount, double avgRating) {
-        this(base64Image, reviewCount, avgRating, false, null, null);
+    public UserImageModel(PayloadHandle payload, int reviewCount, double avgRating) {
+        this(payload, reviewCount, avgRating, false, null, null);
     }
 
     /**
      * Full constructor including upload state and Firebase info.
      *
-     * @param base64Image Base64 encoded image
+     * @param payload     Lazily resolved image bytes
      * @param reviewCount Number of reviews
      * @param avgRating   Average rating
      * @param isUploading True if image is currently uploading
      * @param imageId     Firebase image key
      * @param ownerUid    Owner UID
      */
-    public UserImageModel(String base64Image, int reviewCount, double avgRating,
+    public UserImageModel(PayloadHandle payload, int reviewCount, double avgRating,
                           boolean isUploading, String imageId, String ownerUid) {
-        this.base64Image = base64Image;
+        this.payload = payload;
         this.reviewCount = reviewCount;
         this.avgRating = avgRating;
         this.isUploading = isUploading;
@@ -51,12 +51,12 @@ public class UserImageModel {
         this.ownerUid = ownerUid;
     }
     // Inside UserImageModel.java
-    public UserImageModel(String base64Image, int reviewCount, double avgRating, boolean isUploading) {
-        this(base64Image, reviewCount, avgRating, isUploading, null, null);
+    public UserImageModel(PayloadHandle payload, int reviewCount, double avgRating, boolean isUploading) {
+        this(payload, reviewCount, avgRating, isUploading, null, null);
     }
 
-    public UserImageModel(String base64, int reviewCount, double avgRating, boolean uploading, String id) {
-        this.base64Image = base64;
+    public UserImageModel(PayloadHandle payload, int reviewCount, double avgRating, boolean uploading, String id) {
+        this.payload = payload;
         this.reviewCount = reviewCount;
         this.avgRating = avgRating;
         this.isUploading = uploading;
@@ -66,8 +66,8 @@ public class UserImageModel {
     // =====================
     // Getters
     // =====================
-    public String getBase64Image() {
-        return base64Image;
+    public PayloadHandle getPayload() {
+        return payload;
     }
 
     public int getReviewCount() {
@@ -78,6 +78,10 @@ public class UserImageModel {
         return avgRating;
     }
 
+    public int getUploadProgress() {
+        return uploadProgress;
+    }
+
     public boolean isUploading() {
         return isUploading;
     }
@@ -92,20 +96,11 @@ public class UserImageModel {
 
     public String getId() { return id; }
 
-    /**
-     * Returns the Base64-encoded image string.
-     *
-     * @return Base64 string of the image
-     */
-    public String getBase64() {
-        return base64Image;
-    }
-
     // =====================
     // Setters
     // =====================
-    public void setBase64Image(String base64Image) {
-        this.base64Image = base64Image;
+    public void setPayload(PayloadHandle payload) {
+        this.payload = payload;
     }
 
     public void setReviewCount(int reviewCount) {
@@ -120,6 +115,10 @@ public class UserImageModel {
         isUploading = uploading;
     }
 
+    public void setUploadProgress(int uploadProgress) {
+        this.uploadProgress = uploadProgress;
+    }
+
     public void setImageId(String imageId) {
         this.imageId = imageId;
     }
@@ -133,40 +132,12 @@ public class UserImageModel {
     // =====================
 
     /**
-     * Updates reviewCount and avgRating from a Firebase snapshot of "reviews".
-     *
-     * @param reviewsSnapshot Firebase DataSnapshot pointing to image reviews
-     */
-    public void updateStatsFromFirebase(DataSnapshot reviewsSnapshot) {
-        if (reviewsSnapshot == null || !reviewsSnapshot.exists()) {
-            reviewCount = 0;
-            avgRating = 0.0;
-            return;
-        }
-
-        int totalRating = 0;
-        int count = 0;
-
-        for (DataSnapshot reviewSnap : reviewsSnapshot.getChildren()) {
-            Long rating = reviewSnap.child("rating").getValue(Long.class);
-            if (rating != null) {
-                totalRating += rating.intValue();
-                count++;
-            }
-        }
-
-        reviewCount = count;
-        avgRating = count > 0 ? (double) totalRating / count : 0.0;
-    }
-
-    /**
-     * Converts the object to a Firebase-compatible Map for upload.
+     * Converts the object's metadata to a Firebase-compatible Map.
      *
      * @return Map<String, Object>
      */
     public Map<String, Object> toFirebaseMap() {
         Map<String, Object> map = new HashMap<>();
-        map.put("image", base64Image);
         map.put("reviewCount", reviewCount);
         map.put("avgRating", avgRating);
         map.put("isUploading", isUploading);
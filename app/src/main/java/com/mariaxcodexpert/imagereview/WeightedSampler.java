@@ -0,0 +1,90 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fenwick (binary indexed) tree over candidate weights.
+ * add, remove, setWeight and sample are O(log n); removal swaps the last
+ * candidate into the freed slot so the tree stays dense.
+ */
+class WeightedSampler {
+
+    private HybridImageSelector.Candidate[] items = new HybridImageSelector.Candidate[16];
+    private double[] weights = new double[16];
+    private double[] tree = new double[17]; // 1-based
+    private int size = 0;
+
+    int size() {
+        return size;
+    }
+
+    void add(HybridImageSelector.Candidate candidate, double weight) {
+        if (size == items.length) grow();
+        int slot = size++;
+        items[slot] = candidate;
+        candidate.slot = slot;
+        weights[slot] = 0;
+        setWeight(slot, weight);
+    }
+
+    void remove(HybridImageSelector.Candidate candidate) {
+        int slot = candidate.slot;
+        int last = size - 1;
+        if (slot != last) {
+            HybridImageSelector.Candidate moved = items[last];
+            items[slot] = moved;
+            moved.slot = slot;
+            setWeight(slot, weights[last]);
+        }
+        setWeight(last, 0);
+        items[last] = null;
+        candidate.slot = -1;
+        size--;
+    }
+
+    void setWeight(int slot, double weight) {
+        double delta = weight - weights[slot];
+        weights[slot] = weight;
+        for (int i = slot + 1; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    /**
+     * Picks a candidate with probability proportional to its weight; null if empty
+     */
+    HybridImageSelector.Candidate sample(Random random) {
+        if (size == 0) return null;
+        double total = prefixSum(size);
+        if (total <= 0) return items[random.nextInt(size)];
+
+        // Descend the tree to the first slot whose cumulative weight exceeds target
+        double target = random.nextDouble() * total;
+        int pos = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] <= target) {
+                pos = next;
+                target -= tree[next];
+            }
+        }
+        return items[Math.min(pos, size - 1)];
+    }
+
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    private void grow() {
+        int capacity = items.length * 2;
+        items = Arrays.copyOf(items, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= size; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) tree[parent] += tree[i];
+        }
+    }
+}
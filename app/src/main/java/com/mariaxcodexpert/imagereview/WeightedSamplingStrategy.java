@@ -0,0 +1,42 @@
+package com.mariaxcodexpert.imagereview;
+
+import java.util.Random;
+
+/**
+ * Base for strategies that sample proportionally to a per-image weight.
+ * Backed by a {@link WeightedSampler}, so every operation is O(log n).
+ */
+public abstract class WeightedSamplingStrategy implements SelectionStrategy {
+
+    private final WeightedSampler sampler = new WeightedSampler();
+
+    /**
+     * @return a finite, non-negative sampling weight
+     */
+    protected abstract double weight(HybridImageSelector.ImageData image);
+
+    @Override
+    public void add(HybridImageSelector.Candidate candidate) {
+        sampler.add(candidate, weight(candidate.image));
+    }
+
+    @Override
+    public void remove(HybridImageSelector.Candidate candidate) {
+        sampler.remove(candidate);
+    }
+
+    @Override
+    public void update(HybridImageSelector.Candidate candidate) {
+        sampler.setWeight(candidate.slot, weight(candidate.image));
+    }
+
+    @Override
+    public HybridImageSelector.Candidate pick(Random random) {
+        return sampler.sample(random);
+    }
+
+    @Override
+    public int size() {
+        return sampler.size();
+    }
+}
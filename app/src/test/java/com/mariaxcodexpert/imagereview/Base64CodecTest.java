@@ -0,0 +1,85 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Random;
+
+public class Base64CodecTest {
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * Same layout as android.util.Base64.DEFAULT: 76-char lines, each ending in '\n'
+     */
+    private static String wrapped(byte[] bytes) {
+        String noWrap = Base64.getEncoder().encodeToString(bytes);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < noWrap.length(); i += 76) {
+            sb.append(noWrap, i, Math.min(noWrap.length(), i + 76)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] drain(InputStream in, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void decodesLineWrappedLegacyPayloads() {
+        // Sizes around the chunk boundary and every padding length
+        for (int size : new int[]{0, 1, 2, 3, 57, 6143, 6144, 6145, 100_000}) {
+            byte[] bytes = payload(size);
+            String legacy = wrapped(bytes);
+            assertEquals(size, Base64Codec.decodedLength(legacy));
+            assertArrayEquals("size " + size, bytes, Base64Codec.decode(legacy));
+        }
+    }
+
+    @Test
+    public void decodesNoWrapAndUnpaddedInput() {
+        byte[] bytes = payload(1000);
+        assertArrayEquals(bytes, Base64Codec.decode(Base64.getEncoder().encodeToString(bytes)));
+        assertArrayEquals(bytes, Base64Codec.decode(Base64.getEncoder().withoutPadding().encodeToString(bytes)));
+    }
+
+    @Test
+    public void streamMatchesArrayForAnyReadSize() throws IOException {
+        byte[] bytes = payload(20_001);
+        String legacy = wrapped(bytes);
+        for (int bufferSize : new int[]{1, 2, 4, 5, 4096, 64 * 1024}) {
+            assertArrayEquals("buffer " + bufferSize, bytes, drain(Base64Codec.decodingStream(legacy), bufferSize));
+        }
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        for (String bad : new String[]{"QUJD*", "QUJDR", "QUéJ"}) {
+            try {
+                Base64Codec.decode(bad);
+                fail("accepted " + bad);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void streamReportsInvalidInputAsIOException() throws IOException {
+        drain(Base64Codec.decodingStream("QUJD!QUJD"), 16);
+    }
+}
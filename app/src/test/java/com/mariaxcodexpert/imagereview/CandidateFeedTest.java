@@ -0,0 +1,90 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The source answers on its own thread; the test plays the main thread by running
+ * whatever the feed hands to its callback executor.
+ */
+public class CandidateFeedTest {
+
+    private final List<Runnable> mainQueue = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger changes = new AtomicInteger();
+
+    @Test
+    public void pagesLandInTheSelectorFromTheSourceThread() throws Exception {
+        ConcurrentHybridImageSelector selector = new ConcurrentHybridImageSelector(
+                new HybridImageSelector(Collections.emptyList(), Collections.emptyList(), "reviewer"));
+        List<Thread> sourceThreads = new ArrayList<>();
+        CandidateFeed.Source source = (maxItems, callback) -> {
+            Thread thread = new Thread(() -> callback.onPage(page(maxItems), true));
+            sourceThreads.add(thread);
+            thread.start();
+        };
+        CandidateFeed feed = new CandidateFeed(selector, source, 2, 5, listener(), mainQueue::add);
+
+        feed.refill();
+        for (Thread thread : sourceThreads) thread.join();
+
+        // Inserted off the main thread, before the main thread heard about it
+        assertEquals(5, selector.getQueueSize());
+        assertTrue(feed.isLoading());
+        assertEquals(0, changes.get());
+
+        runMainQueue();
+        assertFalse(feed.isLoading());
+        assertTrue(feed.isExhausted());
+        assertEquals(1, changes.get());
+        assertEquals("img0", selector.peekNextImage().imageId);
+    }
+
+    @Test
+    public void closedFeedDropsLatePages() throws Exception {
+        ConcurrentHybridImageSelector selector = new ConcurrentHybridImageSelector(
+                new HybridImageSelector(Collections.emptyList(), Collections.emptyList(), "reviewer"));
+        List<CandidateFeed.PageCallback> callbacks = new ArrayList<>();
+        CandidateFeed feed = new CandidateFeed(selector, (maxItems, callback) -> callbacks.add(callback),
+                2, 5, listener(), mainQueue::add);
+
+        feed.refill();
+        feed.close();
+        callbacks.get(0).onPage(page(5), true);
+        runMainQueue();
+
+        assertEquals(0, selector.getQueueSize());
+        assertEquals(0, changes.get());
+    }
+
+    private CandidateFeed.Listener listener() {
+        return new CandidateFeed.Listener() {
+            @Override
+            public void onFeedChanged() {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onFeedError(Exception e) {
+                throw new AssertionError(e);
+            }
+        };
+    }
+
+    private void runMainQueue() {
+        while (!mainQueue.isEmpty()) mainQueue.remove(0).run();
+    }
+
+    private static List<HybridImageSelector.ImageData> page(int size) {
+        List<HybridImageSelector.ImageData> page = new ArrayList<>();
+        for (int i = 0; i < size; i++) page.add(new HybridImageSelector.ImageData("owner", "img" + i, i, false));
+        return page;
+    }
+}
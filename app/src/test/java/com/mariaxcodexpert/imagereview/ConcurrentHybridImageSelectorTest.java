@@ -0,0 +1,112 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test: producers insert candidates while consumers take them in parallel.
+ */
+public class ConcurrentHybridImageSelectorTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int CONSUMERS = 3;
+    private static final int IMAGES_PER_PRODUCER = 20_000;
+    private static final String CURRENT_USER = "reviewer";
+
+    @Test
+    public void everyEligibleImageIsServedExactlyOnce() throws Exception {
+        ConcurrentHybridImageSelector selector = new ConcurrentHybridImageSelector(
+                new HybridImageSelector(Collections.emptyList(), Collections.emptyList(), CURRENT_USER));
+
+        Set<String> served = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger ownServed = new AtomicInteger();
+        AtomicBoolean producersDone = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            producers.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < IMAGES_PER_PRODUCER; i++) {
+                    String uid = i % 10 == 0 ? CURRENT_USER : "user" + producer;
+                    HybridImageSelector.ImageData image = new HybridImageSelector.ImageData(
+                            uid, "p" + producer + "-" + i, i % 7, false);
+                    selector.offer(image);
+                    if (i % 3 == 0) selector.offer(image); // duplicate delivery
+                    if (i % 5 == 0) selector.offerReviewCount(image.imageId, i % 11);
+                }
+            }));
+        }
+
+        List<Thread> consumers = new ArrayList<>();
+        for (int c = 0; c < CONSUMERS; c++) {
+            final boolean marks = c % 2 == 0;
+            consumers.add(new Thread(() -> {
+                await(start);
+                while (true) {
+                    boolean finished = producersDone.get();
+                    HybridImageSelector.ImageData next = selector.getNextImage();
+                    if (next == null) {
+                        if (finished) return;
+                        Thread.yield();
+                        continue;
+                    }
+                    if (!served.add(next.imageId)) duplicates.incrementAndGet();
+                    if (CURRENT_USER.equals(next.uid)) ownServed.incrementAndGet();
+                    if (marks) selector.markImageInteracted(next);
+                }
+            }));
+        }
+
+        for (Thread t : producers) t.start();
+        for (Thread t : consumers) t.start();
+        start.countDown();
+
+        for (Thread t : producers) t.join(TimeUnit.SECONDS.toMillis(30));
+        producersDone.set(true);
+        for (Thread t : consumers) t.join(TimeUnit.SECONDS.toMillis(30));
+
+        int eligible = PRODUCERS * IMAGES_PER_PRODUCER * 9 / 10;
+        assertEquals("duplicates", 0, duplicates.get());
+        assertEquals("own images served", 0, ownServed.get());
+        assertEquals(eligible, served.size());
+        assertEquals(0, selector.getQueueSize());
+        assertTrue(selector.getNextImage() == null);
+    }
+
+    @Test
+    public void onlyNewCandidatesCountTowardsTheQueue() {
+        ConcurrentHybridImageSelector selector = new ConcurrentHybridImageSelector(
+                new HybridImageSelector(Collections.emptyList(), Collections.emptyList(), CURRENT_USER));
+        for (int i = 0; i < 60; i++) selector.offerReviewCount("img" + i, i); // a listener attaching
+        assertEquals(0, selector.getQueueSize());
+
+        HybridImageSelector.ImageData image = new HybridImageSelector.ImageData("owner", "img0", 0, false);
+        selector.offer(image);
+        selector.offer(image); // delivered by two pages
+        selector.offer(new HybridImageSelector.ImageData(CURRENT_USER, "own", 0, false));
+        assertEquals(1, selector.getQueueSize());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class HybridImageSelectorLookAheadTest {
+
+    private static final String CURRENT_USER = "reviewer";
+
+    private static HybridImageSelector selector(int images) {
+        List<HybridImageSelector.ImageData> pool = new ArrayList<>();
+        for (int i = 0; i < images; i++) {
+            pool.add(new HybridImageSelector.ImageData("owner", "img" + i, i % 3, false));
+        }
+        return new HybridImageSelector(pool, Collections.emptyList(), CURRENT_USER);
+    }
+
+    @Test
+    public void peekedImagesAreServedInThatOrder() {
+        HybridImageSelector selector = selector(20);
+        List<HybridImageSelector.ImageData> upcoming = selector.peekNextImages(4);
+        assertEquals(4, upcoming.size());
+        assertEquals(upcoming.get(0), selector.peekNextImage());
+        assertEquals(20, selector.getQueueSize());
+
+        for (HybridImageSelector.ImageData expected : upcoming) {
+            assertEquals(expected, selector.getNextImage());
+        }
+        assertEquals(16, selector.getQueueSize());
+    }
+
+    @Test
+    public void skippedLookAheadImageLeavesTheOrder() {
+        HybridImageSelector selector = selector(20);
+        List<HybridImageSelector.ImageData> upcoming = selector.peekNextImages(3);
+        selector.skipImage(upcoming.get(1));
+
+        List<HybridImageSelector.ImageData> after = selector.peekNextImages(3);
+        assertEquals(upcoming.get(0), after.get(0));
+        assertEquals(upcoming.get(2), after.get(1));
+        assertFalse(after.contains(upcoming.get(1)));
+    }
+
+    @Test
+    public void lookAheadStopsAtTheEndOfTheQueue() {
+        HybridImageSelector selector = selector(2);
+        assertEquals(2, selector.peekNextImages(5).size());
+        selector.getNextImage();
+        selector.getNextImage();
+        assertEquals(0, selector.peekNextImages(5).size());
+    }
+}
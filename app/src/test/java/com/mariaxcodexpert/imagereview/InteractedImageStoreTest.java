@@ -0,0 +1,108 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Membership, persistence and the atomic rewrite of the on-disk store.
+ */
+public class InteractedImageStoreTest {
+
+    // Enough to merge the insert buffer many times over
+    private static final int IDS = 10_000;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(tmp.getRoot(), "interacted_reviewer.bin");
+    }
+
+    @Test
+    public void addedIdsAreNeverMissed() {
+        InteractedImageStore store = new InteractedImageStore(file);
+        for (int i = 0; i < IDS; i++) {
+            store.add("img" + i);
+            assertTrue("img" + i, store.contains("img" + i)); // before and after each merge
+        }
+        for (int i = 0; i < IDS; i++) assertTrue("img" + i, store.contains("img" + i));
+        assertEquals(IDS, store.size());
+
+        for (int i = 0; i < IDS; i += 7) store.add("img" + i); // duplicates are ignored
+        assertEquals(IDS, store.size());
+
+        int falsePositives = 0;
+        for (int i = 0; i < IDS; i++) if (store.contains("other" + i)) falsePositives++;
+        assertEquals(0, falsePositives); // 64-bit hashes: any hit here would be a collision
+    }
+
+    @Test
+    public void flushedIdsRoundTripThroughTheFile() {
+        InteractedImageStore store = new InteractedImageStore(file);
+        for (int i = 0; i < IDS; i++) store.add("img" + i);
+        store.flush();
+
+        InteractedImageStore reloaded = new InteractedImageStore(file);
+        assertEquals(IDS, reloaded.size());
+        for (int i = 0; i < IDS; i++) assertTrue("img" + i, reloaded.contains("img" + i));
+        assertFalse(reloaded.contains("img" + IDS));
+    }
+
+    @Test
+    public void onlyFlushedIdsSurviveAReload() {
+        InteractedImageStore store = new InteractedImageStore(file);
+        store.add("flushed");
+        store.flush();
+        store.add("unflushed"); // still in the insert buffer, as when the process dies
+
+        InteractedImageStore reloaded = new InteractedImageStore(file);
+        assertTrue(reloaded.contains("flushed"));
+        assertFalse(reloaded.contains("unflushed"));
+
+        reloaded.add("later");
+        reloaded.flush();
+        InteractedImageStore again = new InteractedImageStore(file);
+        assertEquals(2, again.size());
+        assertTrue(again.contains("later"));
+    }
+
+    @Test
+    public void flushReplacesTheFileAtomically() throws IOException {
+        InteractedImageStore store = new InteractedImageStore(file);
+        store.add("a");
+        store.flush();
+        byte[] before = Files.readAllBytes(file.toPath());
+
+        // A crash mid-write leaves a partial temp file next to the old copy
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(new byte[] {1, 2, 3});
+        }
+        InteractedImageStore afterCrash = new InteractedImageStore(file);
+        assertArrayEquals(before, Files.readAllBytes(file.toPath()));
+        assertTrue(afterCrash.contains("a"));
+
+        afterCrash.add("b");
+        afterCrash.flush();
+        assertFalse(temp.exists()); // renamed over the old file
+        assertEquals(8 + 2 * 8, file.length()); // header plus two hashes, nothing stale
+        InteractedImageStore reloaded = new InteractedImageStore(file);
+        assertTrue(reloaded.contains("a"));
+        assertTrue(reloaded.contains("b"));
+    }
+}
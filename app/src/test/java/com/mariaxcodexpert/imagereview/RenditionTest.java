@@ -0,0 +1,42 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RenditionTest {
+
+    private static final Rendition THUMB = new Rendition(Rendition.THUMB, "t", 533, 400, 30_000);
+    private static final Rendition REVIEW = new Rendition(Rendition.REVIEW, "r", 1707, 1280, 250_000);
+    private static final List<Rendition> BOTH = Arrays.asList(REVIEW, THUMB);
+
+    @Test
+    public void gridCellGetsTheThumbnail() {
+        assertEquals(THUMB, Rendition.pick(BOTH, 360, 360));
+    }
+
+    @Test
+    public void largerViewGetsTheReviewRendition() {
+        assertEquals(REVIEW, Rendition.pick(BOTH, 1080, 1200));
+    }
+
+    @Test
+    public void viewLargerThanEveryRenditionFallsBackToTheOriginal() {
+        assertNull(Rendition.pick(BOTH, 1080, 1400));
+    }
+
+    @Test
+    public void unknownHeightOnlyConstrainsWidth() {
+        assertEquals(THUMB, Rendition.pick(BOTH, 500, 0));
+    }
+
+    @Test
+    public void oldUploadsHaveNoRenditions() {
+        assertNull(Rendition.pick(Collections.<Rendition>emptyList(), 100, 100));
+    }
+}
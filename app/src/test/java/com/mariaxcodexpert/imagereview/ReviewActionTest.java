@@ -0,0 +1,64 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The exact multi-path update each action sends; database.rules.json validates
+ * these paths, so an extra or missing key is a rejected write.
+ */
+public class ReviewActionTest {
+
+    private static final String REVIEW = "users/owner/images/a/reviews/reviewer/";
+
+    @Test
+    public void ratingWritesReviewStatsQueueCountAndInteraction() {
+        Map<String, Object> expected = new HashMap<>();
+        expected.put(REVIEW + "rating", 4);
+        expected.put(REVIEW + "text", "nice");
+        expected.put("users/owner/images/a/stats/reviewCount", ServerValue.increment(1));
+        expected.put("users/owner/images/a/stats/ratingSum", ServerValue.increment(4));
+        expected.put("imageIndex/a/reviewCount", ServerValue.increment(1));
+        expected.put("users/reviewer/interacted/a", ServerValue.TIMESTAMP);
+
+        assertEquals(expected, ReviewAction.review(image(), "reviewer", 4, "nice").toUpdate());
+    }
+
+    @Test
+    public void reactionAndSkipBumpOnlyTheQueueCount() {
+        Map<String, Object> expected = new HashMap<>();
+        expected.put(REVIEW + "reaction", "heart");
+        expected.put("imageIndex/a/reviewCount", ServerValue.increment(1));
+        expected.put("users/reviewer/interacted/a", ServerValue.TIMESTAMP);
+        assertEquals(expected, ReviewAction.reaction(image(), "reviewer", "heart").toUpdate());
+
+        expected.remove(REVIEW + "reaction");
+        expected.put(REVIEW + "skipped", true);
+        assertEquals(expected, ReviewAction.skip(image(), "reviewer").toUpdate());
+    }
+
+    @Test
+    public void uncountedReplayKeepsOnlyIdempotentSets() {
+        ReviewAction action = ReviewAction.reaction(image(), "reviewer", "heart")
+                .merge(ReviewAction.review(image(), "reviewer", 5, "great"));
+        Map<String, Object> expected = new HashMap<>();
+        expected.put(REVIEW + "reaction", "heart");
+        expected.put(REVIEW + "rating", 5);
+        expected.put(REVIEW + "text", "great");
+        expected.put("users/reviewer/interacted/a", ServerValue.TIMESTAMP);
+
+        Map<String, Object> update = new HashMap<>();
+        action.putInto(update, false);
+        assertEquals(expected, update);
+    }
+
+    private static HybridImageSelector.ImageData image() {
+        return new HybridImageSelector.ImageData("owner", "a", 0, false);
+    }
+}
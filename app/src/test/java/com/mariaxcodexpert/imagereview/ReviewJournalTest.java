@@ -0,0 +1,282 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal behaviour without a network: a fake sender records each batch and the test
+ * decides when (and whether) the server acknowledges it.
+ */
+public class ReviewJournalTest {
+
+    private static final String REVIEWER = "reviewer";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File file;
+    private final List<Map<String, Object>> sent = new ArrayList<>();
+    private final List<ReviewJournal.SendCallback> callbacks = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(tmp.getRoot(), "review_journal_" + REVIEWER + ".log");
+    }
+
+    @Test
+    public void repeatedTapsOnOneImageBecomeOneWrite() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "heart"));
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "smile"));
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "like"));
+        journal.append(ReviewAction.skip(image("b"), REVIEWER));
+        journal.flush();
+
+        assertEquals(1, sent.size());
+        Map<String, Object> update = sent.get(0);
+        assertEquals("like", update.get("users/owner/images/a/reviews/" + REVIEWER + "/reaction"));
+        assertEquals(true, update.get("users/owner/images/b/reviews/" + REVIEWER + "/skipped"));
+        assertTrue(update.containsKey("imageIndex/a/reviewCount"));
+        assertTrue(update.containsKey("imageIndex/b/reviewCount"));
+    }
+
+    @Test
+    public void ratingAfterSkipDropsTheSkip() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.skip(image("a"), REVIEWER));
+        journal.append(ReviewAction.review(image("a"), REVIEWER, 4, "nice"));
+        journal.flush();
+
+        Map<String, Object> update = sent.get(0);
+        assertEquals(4, update.get("users/owner/images/a/reviews/" + REVIEWER + "/rating"));
+        assertNull(update.get("users/owner/images/a/reviews/" + REVIEWER + "/skipped"));
+    }
+
+    @Test
+    public void unsentActionsSurviveReopen() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.review(image("a"), REVIEWER, 5, "two words & more"));
+        journal.append(ReviewAction.reaction(image("b"), REVIEWER, "heart"));
+        journal.flush();
+        callbacks.get(0).onSuccess();
+        journal.append(ReviewAction.reaction(image("c"), REVIEWER, "smile"));
+
+        ReviewJournal reopened = new ReviewJournal(file); // as after the process died
+        assertEquals(1, reopened.pendingCount());
+        assertFalse(reopened.isPending(key("a")));
+        assertTrue(reopened.isPending(key("c")));
+    }
+
+    @Test
+    public void textWithSpacesAndNewlinesRoundTrips() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.review(image("a"), REVIEWER, 3, "line one\nline two ~ ."));
+
+        ReviewJournal reopened = new ReviewJournal(file);
+        reopened.setSender(this::record);
+        reopened.flush();
+        assertEquals("line one\nline two ~ .",
+                sent.get(0).get("users/owner/images/a/reviews/" + REVIEWER + "/text"));
+    }
+
+    @Test
+    public void tornLastLineIsIgnored() throws IOException {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "heart"));
+        try (FileWriter out = new FileWriter(file, true)) {
+            out.write("ACT 7 owner b reviewer like ~ 0"); // process died mid-write
+        }
+
+        ReviewJournal reopened = new ReviewJournal(file);
+        assertEquals(1, reopened.pendingCount());
+        assertTrue(reopened.isPending(key("a")));
+    }
+
+    @Test
+    public void actionAppendedWhileInFlightIsSentNext() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "heart"));
+        journal.flush();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "like"));
+        journal.flush(); // one batch at a time
+
+        assertEquals(1, sent.size());
+        callbacks.get(0).onSuccess(); // sends the follow-up straight away
+        assertEquals(2, sent.size());
+        assertEquals("like", sent.get(1).get("users/owner/images/a/reviews/" + REVIEWER + "/reaction"));
+        callbacks.get(1).onSuccess();
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    public void failedBatchIsKeptAndRetriedAlone() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "heart"));
+        journal.append(ReviewAction.reaction(image("b"), REVIEWER, "heart"));
+        journal.flush();
+        callbacks.get(0).onFailure(new Exception("permission denied"));
+        assertEquals(2, journal.pendingCount());
+
+        journal.flush();
+        assertEquals(1, countReactions(sent.get(1)));
+        callbacks.get(1).onSuccess(); // one good write restores full batches
+        assertEquals(1, countReactions(sent.get(2)));
+        callbacks.get(2).onSuccess();
+        assertEquals(0, journal.pendingCount());
+    }
+
+    @Test
+    public void imageTheServerKeepsRejectingIsDropped() {
+        ReviewJournal journal = open();
+        journal.append(ReviewAction.reaction(image("a"), REVIEWER, "heart"));
+        for (int i = 0; i < 5; i++) {
+            journal.flush();
+            callbacks.get(i).onFailure(new Exception("permission denied"));
+        }
+        assertEquals(0, journal.pendingCount());
+        assertEquals(0, new ReviewJournal(file).pendingCount());
+    }
+
+    @Test
+    public void replayOfACommittedReviewIsNotCountedTwice() {
+        Map<String, Object> server = new HashMap<>();
+        ReviewJournal journal = new ReviewJournal(file);
+        journal.setSender((update, callback) -> commit(server, update)); // callback lost
+        journal.append(ReviewAction.review(image("a"), REVIEWER, 4, "nice"));
+        journal.flush();
+        assertEquals(1L, server.get("users/owner/images/a/stats/reviewCount"));
+        assertEquals(1, journal.pendingCount()); // died before the ACK line
+
+        ReviewJournal reopened = new ReviewJournal(file);
+        reopened.setSender((update, callback) -> {
+            if (commit(server, update)) callback.onSuccess();
+            else callback.onRejected(new Exception("permission denied"));
+        });
+        reopened.setLookup((action, callback) -> callback.onResult(hasReview(server, action.imageId)));
+        reopened.flush();
+
+        assertEquals(0, reopened.pendingCount());
+        assertEquals(1L, server.get("users/owner/images/a/stats/reviewCount"));
+        assertEquals(4L, server.get("users/owner/images/a/stats/ratingSum"));
+        assertEquals(1L, server.get("imageIndex/a/reviewCount"));
+        assertEquals(4, server.get("users/owner/images/a/reviews/" + REVIEWER + "/rating"));
+    }
+
+    @Test
+    public void denialForAnotherReasonKeepsTheCounts() {
+        Map<String, Object> server = new HashMap<>();
+        List<Exception> failed = new ArrayList<>();
+        boolean[] tokenExpired = {true};
+        ReviewJournal journal = new ReviewJournal(file);
+        journal.setSender((update, callback) -> {
+            if (tokenExpired[0]) callback.onRejected(new Exception("permission denied"));
+            else if (commit(server, update)) callback.onSuccess();
+            else callback.onRejected(new Exception("permission denied"));
+        });
+        journal.setLookup((action, callback) -> callback.onResult(hasReview(server, action.imageId)));
+        journal.setListener(new ReviewJournal.Listener() {
+            @Override
+            public void onFlushed(List<ReviewAction> actions) {}
+
+            @Override
+            public void onFlushFailed(List<ReviewAction> actions, Exception e) {
+                failed.add(e);
+            }
+        });
+        journal.append(ReviewAction.review(image("a"), REVIEWER, 4, "nice"));
+        journal.flush();
+        assertEquals(1, failed.size()); // reported, so the caller backs off and retries
+        assertEquals(1, journal.pendingCount());
+        assertTrue(server.isEmpty());
+
+        tokenExpired[0] = false; // refreshed
+        journal.flush();
+
+        assertEquals(0, journal.pendingCount());
+        assertEquals(1L, server.get("users/owner/images/a/stats/reviewCount"));
+        assertEquals(4L, server.get("users/owner/images/a/stats/ratingSum"));
+        assertEquals(1L, server.get("imageIndex/a/reviewCount"));
+    }
+
+    private ReviewJournal open() {
+        ReviewJournal journal = new ReviewJournal(file);
+        journal.setSender(this::record);
+        return journal;
+    }
+
+    private void record(Map<String, Object> update, ReviewJournal.SendCallback callback) {
+        sent.add(update);
+        callbacks.add(callback);
+    }
+
+    /**
+     * Applies an update the way database.rules.json allows: increments only in the write
+     * that creates the reviewer's entry under the image's reviews
+     *
+     * @return false if the rules reject it
+     */
+    private static boolean commit(Map<String, Object> server, Map<String, Object> update) {
+        for (Map.Entry<String, Object> write : update.entrySet()) {
+            if (increment(write.getValue()) == null) continue;
+            String[] path = write.getKey().split("/");
+            String imageId = path[0].equals("imageIndex") ? path[1] : path[3];
+            if (hasReview(server, imageId)) return false;
+        }
+        for (Map.Entry<String, Object> write : update.entrySet()) {
+            Number delta = increment(write.getValue());
+            if (delta == null) {
+                server.put(write.getKey(), write.getValue());
+            } else {
+                Object current = server.get(write.getKey());
+                server.put(write.getKey(), (current != null ? (Long) current : 0L) + delta.longValue());
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasReview(Map<String, Object> server, String imageId) {
+        String review = "users/owner/images/" + imageId + "/reviews/" + REVIEWER + "/";
+        for (String existing : server.keySet()) {
+            if (existing.startsWith(review)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Delta of a ServerValue.increment placeholder, null for a plain value
+     */
+    private static Number increment(Object value) {
+        if (!(value instanceof Map)) return null;
+        Object op = ((Map<?, ?>) value).get(".sv");
+        return op instanceof Map ? (Number) ((Map<?, ?>) op).get("increment") : null;
+    }
+
+    private static int countReactions(Map<String, Object> update) {
+        int n = 0;
+        for (String path : update.keySet()) if (path.endsWith("/reaction")) n++;
+        return n;
+    }
+
+    private static HybridImageSelector.ImageData image(String imageId) {
+        return new HybridImageSelector.ImageData("owner", imageId, 0, false);
+    }
+
+    private static String key(String imageId) {
+        return "owner/" + imageId + "/" + REVIEWER;
+    }
+}
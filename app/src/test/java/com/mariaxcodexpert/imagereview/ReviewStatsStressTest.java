@@ -0,0 +1,249 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stress test: many reviewers rate the same images at once, each through its own
+ * {@link ReviewSubmitter} and {@link ReviewJournal}, against a server model that applies
+ * the increments of {@link ReviewAction#putInto} atomically under database.rules.json's
+ * once-per-reviewer condition. Some writes fail before reaching the server, some commit
+ * but lose their acknowledgement and are replayed. Every save re-derives the average the
+ * way {@link ReviewStats#refreshAverage} does: a transaction that retries when the stats
+ * changed under it. No rating may be lost or counted twice.
+ */
+public class ReviewStatsStressTest {
+
+    private static final int REVIEWERS = 8;
+    private static final int IMAGES = 50;
+    private static final double FAILURE_RATE = 0.03;  // write never reaches the server
+    private static final double LOST_ACK_RATE = 0.03; // write commits, the client hears an error
+    private static final long THINK_TIME_NANOS = 200_000;
+    private static final long ROUND_TRIP_NANOS = 100_000;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final ScheduledExecutorService network = Executors.newScheduledThreadPool(4);
+    private final Server server = new Server();
+
+    @After
+    public void tearDown() {
+        network.shutdownNow();
+    }
+
+    @Test
+    public void concurrentReviewersNeverLoseUpdates() throws Exception {
+        long[] expectedSum = new long[IMAGES];
+        List<ReviewJournal> journals = new ArrayList<>();
+        List<ReviewSubmitter> submitters = new ArrayList<>();
+        for (int r = 0; r < REVIEWERS; r++) {
+            ReviewJournal journal = new ReviewJournal(new File(tmp.newFolder(), "review_journal_r" + r + ".log"));
+            journal.setSender(this::send);
+            journal.setLookup((action, callback) -> callback.onResult(server.hasReview(action.imageId, action.reviewerUid)));
+            journals.add(journal);
+            submitters.add(new ReviewSubmitter(journal, true, new ReviewSubmitter.Listener() {
+                @Override
+                public void onSaved(List<ReviewAction> actions) {
+                    for (ReviewAction action : actions) {
+                        if (action.rating != null) server.refreshAverage(action.imageId);
+                    }
+                }
+
+                @Override
+                public void onSaveFailed(boolean awaited, Exception e) {
+                    // stays journaled, the retry loop below sends it again
+                }
+            }));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> reviewers = new ArrayList<>();
+        for (int r = 0; r < REVIEWERS; r++) {
+            final String reviewer = "r" + r;
+            final ReviewSubmitter submitter = submitters.get(r);
+            final Random random = new Random(r);
+            final List<Integer> order = new ArrayList<>();
+            final int[] ratings = new int[IMAGES];
+            for (int i = 0; i < IMAGES; i++) {
+                order.add(i);
+                ratings[i] = 1 + random.nextInt(5);
+                synchronized (expectedSum) {
+                    expectedSum[i] += ratings[i];
+                }
+            }
+            Collections.shuffle(order, random);
+            reviewers.add(new Thread(() -> {
+                await(start);
+                for (int i : order) {
+                    HybridImageSelector.ImageData image = new HybridImageSelector.ImageData("owner", "img" + i, 0, false);
+                    submitter.submit(ReviewAction.review(image, reviewer, ratings[i], "ok"), () -> {});
+                    LockSupport.parkNanos(THINK_TIME_NANOS); // small batches, many interleaved writes
+                }
+            }));
+        }
+        for (Thread t : reviewers) t.start();
+        start.countDown();
+        for (Thread t : reviewers) t.join();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!drained(journals)) {
+            assertTrue("journals did not drain", System.nanoTime() < deadline);
+            for (ReviewSubmitter submitter : submitters) submitter.retry();
+            Thread.sleep(5);
+        }
+        network.shutdown();
+        assertTrue(network.awaitTermination(10, TimeUnit.SECONDS)); // last callbacks and refreshes
+
+        System.out.println(server.commits.get() + " commits, " + server.rejected.get() + " rejected replays, "
+                + server.transactionRetries.get() + " average transaction retries");
+        for (int i = 0; i < IMAGES; i++) {
+            String stats = "users/owner/images/img" + i + "/stats/";
+            assertEquals((long) REVIEWERS, server.get(stats + ReviewStats.REVIEW_COUNT));
+            assertEquals(expectedSum[i], server.get(stats + ReviewStats.RATING_SUM));
+            assertEquals((long) REVIEWERS, server.get("imageIndex/img" + i + "/reviewCount"));
+            assertEquals((double) expectedSum[i] / REVIEWERS, (Double) server.get(stats + ReviewStats.AVG_RATING), 1e-9);
+        }
+    }
+
+    private void send(Map<String, Object> update, ReviewJournal.SendCallback callback) {
+        network.schedule(() -> {
+            double fate = ThreadLocalRandom.current().nextDouble();
+            if (fate < FAILURE_RATE) {
+                callback.onFailure(new Exception("network error"));
+            } else if (!server.commit(update)) {
+                callback.onRejected(new Exception("permission denied"));
+            } else if (fate < FAILURE_RATE + LOST_ACK_RATE) {
+                callback.onFailure(new Exception("connection lost before the ack"));
+            } else {
+                callback.onSuccess();
+            }
+        }, ThreadLocalRandom.current().nextInt(3), TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean drained(List<ReviewJournal> journals) {
+        for (ReviewJournal journal : journals) {
+            if (journal.pendingCount() > 0) return false;
+        }
+        return true;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Database root as flat paths. A multi-path update is applied atomically; its increments
+     * only if it also creates the reviewer's entry under that image's reviews.
+     */
+    private static final class Server {
+        private final Map<String, Object> data = new HashMap<>();
+        private final Set<String> reviewed = new HashSet<>(); // imageId/reviewerUid
+        private final Map<String, Long> statsVersion = new HashMap<>();
+        final AtomicLong commits = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong transactionRetries = new AtomicLong();
+
+        synchronized Object get(String path) {
+            return data.get(path);
+        }
+
+        synchronized boolean hasReview(String imageId, String reviewerUid) {
+            return reviewed.contains(imageId + "/" + reviewerUid);
+        }
+
+        synchronized boolean commit(Map<String, Object> update) {
+            Set<String> created = new HashSet<>();
+            for (String path : update.keySet()) {
+                String[] parts = path.split("/");
+                if (parts.length > 5 && parts[4].equals(ImageNode.REVIEWS)) created.add(parts[3] + "/" + parts[5]);
+            }
+            for (Map.Entry<String, Object> write : update.entrySet()) {
+                if (increment(write.getValue()) == null) continue;
+                String[] parts = write.getKey().split("/");
+                String imageId = parts[0].equals("imageIndex") ? parts[1] : parts[3];
+                for (String review : created) {
+                    if (review.startsWith(imageId + "/") && reviewed.contains(review)) {
+                        rejected.incrementAndGet();
+                        return false;
+                    }
+                }
+            }
+            for (Map.Entry<String, Object> write : update.entrySet()) {
+                Number delta = increment(write.getValue());
+                if (delta == null) {
+                    data.put(write.getKey(), write.getValue());
+                    continue;
+                }
+                Object current = data.get(write.getKey());
+                data.put(write.getKey(), (current != null ? (Long) current : 0L) + delta.longValue());
+                String[] parts = write.getKey().split("/");
+                if (parts[0].equals("users")) statsVersion.merge(parts[3], 1L, Long::sum);
+            }
+            reviewed.addAll(created);
+            commits.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Optimistic transaction on the image's stats: derive from a snapshot, commit
+         * only if nothing changed since, otherwise retry on the fresh value
+         */
+        void refreshAverage(String imageId) {
+            String stats = "users/owner/images/" + imageId + "/stats/";
+            while (true) {
+                ReviewTotals totals;
+                Long version;
+                synchronized (this) {
+                    totals = ReviewTotals.of((Long) data.get(stats + ReviewStats.REVIEW_COUNT),
+                            (Long) data.get(stats + ReviewStats.RATING_SUM));
+                    version = statsVersion.get(imageId);
+                }
+                double average = totals.averageRating();
+                LockSupport.parkNanos(ROUND_TRIP_NANOS); // others commit meanwhile
+                synchronized (this) {
+                    if (version != null && version.equals(statsVersion.get(imageId))) {
+                        data.put(stats + ReviewStats.AVG_RATING, average);
+                        return;
+                    }
+                }
+                transactionRetries.incrementAndGet();
+            }
+        }
+
+        /**
+         * Delta of a ServerValue.increment placeholder, null for a plain value
+         */
+        private static Number increment(Object value) {
+            if (!(value instanceof Map)) return null;
+            Object op = ((Map<?, ?>) value).get(".sv");
+            return op instanceof Map ? (Number) ((Map<?, ?>) op).get("increment") : null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time between reviews when every server write takes {@link #LATENCY_MS}. A reviewer
+ * submits {@link #REVIEWS} actions back to back and may only start the next one when
+ * the submitter lets it move on. Waiting for the ack costs a round-trip per review;
+ * optimistic mode only pays for the journal append, and still gets every action saved.
+ */
+public class ReviewSubmitterLatencyTest {
+
+    private static final long LATENCY_MS = 40;
+    private static final int REVIEWS = 30;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final ScheduledExecutorService network = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void tearDown() {
+        network.shutdownNow();
+    }
+
+    @Test
+    public void optimisticAdvanceRemovesTheRoundTripFromEachReview() throws Exception {
+        Run blocking = run(false);
+        Run optimistic = run(true);
+
+        System.out.printf("time between reviews at %d ms latency: waiting %.2f ms, optimistic %.2f ms (%d vs %d writes)%n",
+                LATENCY_MS, blocking.msPerReview, optimistic.msPerReview, blocking.writes, optimistic.writes);
+
+        assertTrue("waiting mode should pay the round-trip", blocking.msPerReview >= LATENCY_MS);
+        assertTrue("optimistic mode should not wait on the network",
+                optimistic.msPerReview < blocking.msPerReview / 4);
+        assertEquals(REVIEWS, blocking.saved);
+        assertEquals(REVIEWS, optimistic.saved);
+        assertTrue("optimistic actions should share batches", optimistic.writes < REVIEWS);
+    }
+
+    private Run run(boolean optimistic) throws Exception {
+        File file = new File(tmp.newFolder(), "review_journal_reviewer.log");
+        ReviewJournal journal = new ReviewJournal(file);
+        AtomicInteger writes = new AtomicInteger();
+        journal.setSender((update, callback) -> {
+            writes.incrementAndGet();
+            network.schedule(callback::onSuccess, LATENCY_MS, TimeUnit.MILLISECONDS);
+        });
+
+        AtomicInteger saved = new AtomicInteger();
+        CountDownLatch allSaved = new CountDownLatch(REVIEWS);
+        ReviewSubmitter submitter = new ReviewSubmitter(journal, optimistic, new ReviewSubmitter.Listener() {
+            @Override
+            public void onSaved(List<ReviewAction> actions) {
+                saved.addAndGet(actions.size());
+                for (int i = 0; i < actions.size(); i++) allSaved.countDown();
+            }
+
+            @Override
+            public void onSaveFailed(boolean awaited, Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REVIEWS; i++) {
+            CountDownLatch advanced = new CountDownLatch(1);
+            HybridImageSelector.ImageData image = new HybridImageSelector.ImageData("owner", "img" + i, 0, false);
+            submitter.submit(ReviewAction.review(image, "reviewer", 4, "ok"), advanced::countDown);
+            assertTrue(advanced.await(5, TimeUnit.SECONDS));
+        }
+        double msPerReview = (System.nanoTime() - start) / 1e6 / REVIEWS;
+
+        assertTrue("journal did not drain", allSaved.await(10, TimeUnit.SECONDS));
+        assertEquals(0, journal.pendingCount());
+        submitter.detach();
+        return new Run(msPerReview, saved.get(), writes.get());
+    }
+
+    private static final class Run {
+        final double msPerReview;
+        final int saved;
+        final int writes;
+
+        Run(double msPerReview, int saved, int writes) {
+            this.msPerReview = msPerReview;
+            this.saved = saved;
+            this.writes = writes;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.mariaxcodexpert.imagereview;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Waiting (non-optimistic) mode: the caller moves on only once its own action is saved,
+ * and is released on a failure only if that failure was its own action's.
+ */
+public class ReviewSubmitterTest {
+
+    private static final String REVIEWER = "reviewer";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private ReviewJournal journal;
+    private final List<Map<String, Object>> sent = new ArrayList<>();
+    private final List<ReviewJournal.SendCallback> callbacks = new ArrayList<>();
+    private final List<Boolean> failures = new ArrayList<>(); // the awaited flag of each report
+
+    @Before
+    public void setUp() {
+        journal = new ReviewJournal(new File(tmp.getRoot(), "review_journal_" + REVIEWER + ".log"));
+        journal.setSender((update, callback) -> {
+            sent.add(update);
+            callbacks.add(callback);
+        });
+    }
+
+    @Test
+    public void callerMovesOnOnceItsActionIsSaved() {
+        ReviewSubmitter submitter = waiting();
+        boolean[] done = {false};
+        submitter.submit(ReviewAction.reaction(image("a"), REVIEWER, "heart"), () -> done[0] = true);
+        assertFalse(done[0]);
+
+        callbacks.get(0).onSuccess();
+        assertTrue(done[0]);
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    public void failedReplayOfAnotherActionKeepsTheCallerWaiting() {
+        journal.append(ReviewAction.reaction(image("old"), REVIEWER, "heart")); // left by an earlier session
+        journal.flush();
+        ReviewSubmitter submitter = waiting();
+        boolean[] done = {false};
+        submitter.submit(ReviewAction.reaction(image("a"), REVIEWER, "smile"), () -> done[0] = true);
+
+        callbacks.get(0).onFailure(new Exception("network error")); // the replay, still in flight
+        assertEquals(1, failures.size());
+        assertFalse("only the caller's own failure releases it", failures.get(0));
+        assertFalse(done[0]);
+
+        submitter.retry();
+        assertEquals(2, sent.size());
+        callbacks.get(1).onSuccess(); // the replay and the caller's action in one batch
+        assertTrue(done[0]);
+        assertEquals(1, failures.size());
+    }
+
+    @Test
+    public void failureOfTheCallersActionReleasesIt() {
+        ReviewSubmitter submitter = waiting();
+        boolean[] done = {false};
+        submitter.submit(ReviewAction.reaction(image("a"), REVIEWER, "heart"), () -> done[0] = true);
+
+        callbacks.get(0).onFailure(new Exception("network error"));
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0));
+        assertFalse(done[0]);
+        assertTrue("stays journaled for retry", journal.isPending(ReviewAction.reaction(image("a"), REVIEWER, "heart").key()));
+    }
+
+    private ReviewSubmitter waiting() {
+        return new ReviewSubmitter(journal, false, new ReviewSubmitter.Listener() {
+            @Override
+            public void onSaved(List<ReviewAction> actions) {}
+
+            @Override
+            public void onSaveFailed(boolean awaited, Exception e) {
+                failures.add(awaited);
+            }
+        });
+    }
+
+    private static HybridImageSelector.ImageData image(String imageId) {
+        return new HybridImageSelector.ImageData("owner", imageId, 0, false);
+    }
+}
@@ -0,0 +1,121 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import com.mariaxcodexpert.imagereview.Base64Codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Time and allocation per decoded MB for legacy Base64 payloads, old path against
+ * {@link Base64Codec}. Inputs are line-wrapped like Android's Base64.DEFAULT (76 chars
+ * and '\n') and unwrapped like NO_WRAP. Run with
+ * {@code ./gradlew :benchmark:base64Benchmark}.
+ */
+public class Base64Benchmark {
+
+    private static final int PAYLOAD_BYTES = 4 * 1024 * 1024;
+    private static final int LINE_CHARS = 76;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 9;
+    private static final double MB = 1024 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final byte[] SINK = new byte[64 * 1024]; // the disk cache's copy buffer
+
+    enum Decoder {
+        // What the old code paths did: strip whitespace, then decode a byte copy
+        REGEX_STRIP("regex strip + decode") {
+            @Override
+            long decode(String in) {
+                return Base64.getDecoder().decode(in.replaceAll("\\s+", "")).length;
+            }
+        },
+        // Closest JVM match to android.util.Base64.decode(s, DEFAULT)
+        MIME("mime decode") {
+            @Override
+            long decode(String in) {
+                return Base64.getMimeDecoder().decode(in).length;
+            }
+        },
+        CODEC_ARRAY("codec decode") {
+            @Override
+            long decode(String in) {
+                return Base64Codec.decode(in).length;
+            }
+        },
+        CODEC_STREAM("codec stream") {
+            @Override
+            long decode(String in) throws IOException {
+                long total = 0;
+                try (InputStream stream = Base64Codec.decodingStream(in)) {
+                    int read;
+                    while ((read = stream.read(SINK)) != -1) total += read;
+                }
+                return total;
+            }
+        };
+
+        final String key;
+
+        Decoder(String key) {
+            this.key = key;
+        }
+
+        abstract long decode(String in) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        new Random(42).nextBytes(payload);
+        String noWrap = Base64.getEncoder().encodeToString(payload);
+        String wrapped = wrap(noWrap);
+
+        System.out.println(String.format("%-22s %-8s %12s %14s", "decoder", "input", "ms/MB", "alloc B/MB"));
+        for (Decoder decoder : Decoder.values()) {
+            System.out.println(measure(decoder, "DEFAULT", wrapped));
+            System.out.println(measure(decoder, "NO_WRAP", noWrap));
+        }
+    }
+
+    static String wrap(String noWrap) {
+        StringBuilder sb = new StringBuilder(noWrap.length() + noWrap.length() / LINE_CHARS + 1);
+        for (int i = 0; i < noWrap.length(); i += LINE_CHARS) {
+            sb.append(noWrap, i, Math.min(noWrap.length(), i + LINE_CHARS)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Median time and lowest allocation of the measured rounds, both per decoded MB
+     */
+    static String measure(Decoder decoder, String label, String input) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) check(decoder.decode(input));
+
+        long threadId = Thread.currentThread().getId();
+        double[] msPerMb = new double[MEASURED_ROUNDS];
+        double bytesPerMb = Double.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long decoded = decoder.decode(input);
+            long elapsed = System.nanoTime() - start;
+            long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+            check(decoded);
+
+            msPerMb[i] = elapsed / 1e6 / (decoded / MB);
+            bytesPerMb = Math.min(bytesPerMb, bytes / (decoded / MB));
+        }
+        Arrays.sort(msPerMb);
+        return String.format("%-22s %-8s %12.2f %14.0f", decoder.key, label, msPerMb[MEASURED_ROUNDS / 2], bytesPerMb);
+    }
+
+    private static void check(long decoded) {
+        if (decoded != PAYLOAD_BYTES) throw new IllegalStateException("decoded " + decoded + " bytes");
+    }
+}
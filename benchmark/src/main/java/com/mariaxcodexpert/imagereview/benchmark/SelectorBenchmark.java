@@ -0,0 +1,118 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scaling benchmark for HybridImageSelector.
+ * Measures ops/sec and allocated bytes/op for every operation across pool
+ * sizes and skip ratios. Run the full matrix with
+ * {@code ./gradlew :benchmark:selectorBenchmark}; the test task runs the quick
+ * profile against selector-thresholds.properties.
+ */
+public class SelectorBenchmark {
+
+    public static final int[] FULL_POOL_SIZES = {30, 1_000, 10_000, 100_000, 1_000_000};
+    public static final double[] FULL_SKIP_RATIOS = {0.0, 0.5, 0.9};
+
+    public static final int[] QUICK_POOL_SIZES = {30, 1_000, 100_000, 1_000_000};
+    public static final double[] QUICK_SKIP_RATIOS = {0.0, 0.9};
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmupRounds;
+    private final int measuredRounds;
+
+    public SelectorBenchmark(int warmupRounds, int measuredRounds) {
+        this.warmupRounds = warmupRounds;
+        this.measuredRounds = measuredRounds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SelectorBenchmark benchmark = new SelectorBenchmark(3, 5);
+        List<Result> results = benchmark.runMatrix(FULL_POOL_SIZES, FULL_SKIP_RATIOS);
+
+        if (args.length > 0) {
+            SelectorThresholds thresholds = SelectorThresholds.load(args[0]);
+            List<String> violations = new ArrayList<>();
+            for (Result result : results) violations.addAll(thresholds.check(result));
+            for (String violation : violations) System.out.println("THRESHOLD " + violation);
+            if (!violations.isEmpty()) System.exit(1);
+        }
+    }
+
+    public List<Result> runMatrix(int[] poolSizes, double[] skipRatios) {
+        List<Result> results = new ArrayList<>();
+        System.out.println(String.format("%-22s %9s %6s %16s %12s",
+                "operation", "pool", "skip", "ops/s", "B/op"));
+        for (int poolSize : poolSizes) {
+            for (double skipRatio : skipRatios) {
+                SelectorFixture fixture = new SelectorFixture(poolSize, skipRatio);
+                for (SelectorOperation operation : SelectorOperation.values()) {
+                    Result result = measure(operation, fixture);
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Reports the median throughput and the lowest allocation rate of the measured rounds
+     */
+    public Result measure(SelectorOperation operation, SelectorFixture fixture) {
+        for (int i = 0; i < warmupRounds; i++) {
+            operation.prepare(fixture).run();
+        }
+
+        double[] opsPerSec = new double[measuredRounds];
+        double bytesPerOp = Double.MAX_VALUE;
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < measuredRounds; i++) {
+            SelectorOperation.Round round = operation.prepare(fixture);
+
+            long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long ops = round.run();
+            long elapsed = System.nanoTime() - start;
+            long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+            ops = Math.max(1, ops);
+            opsPerSec[i] = ops * 1e9 / Math.max(1, elapsed);
+            bytesPerOp = Math.min(bytesPerOp, (double) bytes / ops);
+        }
+        Arrays.sort(opsPerSec);
+        return new Result(operation, fixture.poolSize, fixture.skipRatio,
+                opsPerSec[measuredRounds / 2], bytesPerOp);
+    }
+
+    public static class Result {
+        public final SelectorOperation operation;
+        public final int poolSize;
+        public final double skipRatio;
+        public final double opsPerSec;
+        public final double bytesPerOp;
+
+        Result(SelectorOperation operation, int poolSize, double skipRatio, double opsPerSec, double bytesPerOp) {
+            this.operation = operation;
+            this.poolSize = poolSize;
+            this.skipRatio = skipRatio;
+            this.opsPerSec = opsPerSec;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        String label() {
+            return String.format("%s[pool=%d, skip=%.0f%%]", operation.key, poolSize, skipRatio * 100);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %9d %5.0f%% %16.0f %12.1f",
+                    operation.key, poolSize, skipRatio * 100, opsPerSec, bytesPerOp);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import com.mariaxcodexpert.imagereview.HybridImageSelector;
+import com.mariaxcodexpert.imagereview.SelectionStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic candidate pool for one benchmark cell (pool size x skip ratio).
+ * Review counts are spread over 0..9, uploads over the last week, and every
+ * 50th image belongs to the reviewer. -Dselector.strategy picks the strategy.
+ */
+public class SelectorFixture {
+
+    public static final String CURRENT_USER = "reviewer";
+    public static final int ADD_BATCH_SIZE = 30;
+    public static final String STRATEGY =
+            System.getProperty("selector.strategy", SelectionStrategy.LEAST_REVIEWED);
+
+    private static final int REVIEW_COUNT_SPREAD = 10;
+
+    final int poolSize;
+    final double skipRatio;
+    final List<HybridImageSelector.ImageData> pool;
+    final List<String> skippedImages;
+
+    private final Random random = new Random(42);
+    private int freshIds = 0;
+
+    public SelectorFixture(int poolSize, double skipRatio) {
+        this.poolSize = poolSize;
+        this.skipRatio = skipRatio;
+        this.pool = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.add(newImage("img" + i, i));
+        }
+
+        List<String> ids = new ArrayList<>(poolSize);
+        for (HybridImageSelector.ImageData img : pool) ids.add(img.imageId);
+        Collections.shuffle(ids, random);
+        this.skippedImages = new ArrayList<>(ids.subList(0, (int) (poolSize * skipRatio)));
+    }
+
+    /**
+     * Fresh selector over the pool; markImageInteracted flips flags on the
+     * shared ImageData objects, so they are reset first.
+     */
+    HybridImageSelector newSelector() {
+        for (HybridImageSelector.ImageData img : pool) img.alreadyReviewed = false;
+        return buildSelector();
+    }
+
+    HybridImageSelector buildSelector() {
+        return new HybridImageSelector(pool, skippedImages, CURRENT_USER, SelectionStrategy.forName(STRATEGY, 30));
+    }
+
+    /**
+     * Images that are not yet in the pool, grouped in addImages() sized batches
+     */
+    List<List<HybridImageSelector.ImageData>> freshBatches(int batches) {
+        List<List<HybridImageSelector.ImageData>> result = new ArrayList<>(batches);
+        for (int b = 0; b < batches; b++) {
+            List<HybridImageSelector.ImageData> batch = new ArrayList<>(ADD_BATCH_SIZE);
+            for (int i = 0; i < ADD_BATCH_SIZE; i++) {
+                int n = freshIds++;
+                batch.add(newImage("fresh" + n, n));
+            }
+            result.add(batch);
+        }
+        return result;
+    }
+
+    private HybridImageSelector.ImageData newImage(String imageId, int n) {
+        String uid = n % 50 == 0 ? CURRENT_USER : "user" + (n % 997);
+        return new HybridImageSelector.ImageData(uid, imageId, random.nextInt(REVIEW_COUNT_SPREAD), false,
+                System.currentTimeMillis() - random.nextInt(7 * 24 * 60 * 60 * 1000), 0, null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import com.mariaxcodexpert.imagereview.HybridImageSelector;
+
+import java.util.List;
+
+/**
+ * Selector operations covered by {@link SelectorBenchmark}.
+ * prepare() builds the round's state untimed; only Round.run() is measured.
+ */
+public enum SelectorOperation {
+
+    /** Builds a selector from the pool; one op = one image indexed */
+    CONSTRUCTOR("constructor") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            int repeats = Math.max(1, 200_000 / Math.max(1, fixture.poolSize));
+            for (HybridImageSelector.ImageData img : fixture.pool) img.alreadyReviewed = false;
+            return () -> {
+                for (int i = 0; i < repeats; i++) {
+                    HybridImageSelector selector = fixture.buildSelector();
+                    sink += selector.getPoolSize();
+                }
+                return (long) repeats * fixture.poolSize;
+            };
+        }
+    },
+
+    /**
+     * Peek after each take, as ReviewImageActivity does once an image is consumed; every
+     * op has to reserve a fresh candidate, not re-read the one already reserved
+     */
+    PEEK("peekNextImage") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            HybridImageSelector selector = fixture.newSelector();
+            return () -> {
+                long ops = 0;
+                long checksum = 0;
+                HybridImageSelector.ImageData img;
+                while (ops < OPS_PER_ROUND && (img = selector.peekNextImage()) != null) {
+                    checksum += img.reviewCount;
+                    selector.getNextImage();
+                    ops++;
+                }
+                sink += checksum;
+                return ops;
+            };
+        }
+    },
+
+    /** Drains the queue with getNextImage() */
+    NEXT("getNextImage") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            HybridImageSelector selector = fixture.newSelector();
+            return () -> {
+                long ops = 0;
+                long checksum = 0;
+                HybridImageSelector.ImageData img;
+                while (ops < OPS_PER_ROUND && (img = selector.getNextImage()) != null) {
+                    checksum += img.reviewCount;
+                    ops++;
+                }
+                sink += checksum;
+                return ops;
+            };
+        }
+    },
+
+    /** Review loop: peek the current image, then mark it interacted */
+    MARK("markImageInteracted") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            HybridImageSelector selector = fixture.newSelector();
+            return () -> {
+                long ops = 0;
+                HybridImageSelector.ImageData img;
+                while (ops < OPS_PER_ROUND && (img = selector.peekNextImage()) != null) {
+                    selector.markImageInteracted(img);
+                    ops++;
+                }
+                return ops;
+            };
+        }
+    },
+
+    /** Live review-count changes moving images between buckets */
+    UPDATE_REVIEW_COUNT("updateReviewCount") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            HybridImageSelector selector = fixture.newSelector();
+            String[] ids = new String[fixture.pool.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = fixture.pool.get(i).imageId;
+            return () -> {
+                if (ids.length == 0) return 0;
+                for (int i = 0; i < OPS_PER_ROUND; i++) {
+                    selector.updateReviewCount(ids[i % ids.length], i % 20);
+                }
+                sink += selector.getPoolSize();
+                return OPS_PER_ROUND;
+            };
+        }
+    },
+
+    /** addImages() with Firebase-sized batches of new candidates; one op = one call */
+    ADD_IMAGES("addImages") {
+        @Override
+        Round prepare(SelectorFixture fixture) {
+            HybridImageSelector selector = fixture.newSelector();
+            List<List<HybridImageSelector.ImageData>> batches = fixture.freshBatches(ADD_BATCHES_PER_ROUND);
+            return () -> {
+                for (List<HybridImageSelector.ImageData> batch : batches) {
+                    selector.addImages(batch);
+                }
+                sink += selector.getPoolSize();
+                return batches.size();
+            };
+        }
+    };
+
+    static final long OPS_PER_ROUND = 1_000_000;
+    static final int ADD_BATCHES_PER_ROUND = 1_000;
+
+    /** Keeps results observable so the JIT cannot drop the measured calls */
+    static volatile long sink;
+
+    final String key;
+
+    SelectorOperation(String key) {
+        this.key = key;
+    }
+
+    abstract Round prepare(SelectorFixture fixture);
+
+    interface Round {
+        /** @return number of operations performed */
+        long run();
+    }
+}
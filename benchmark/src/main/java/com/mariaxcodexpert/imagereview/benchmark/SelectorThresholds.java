@@ -0,0 +1,54 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Regression limits read from selector-thresholds.properties.
+ * Keys are {@code <operation>.minOpsPerSec} and {@code <operation>.maxBytesPerOp},
+ * optionally narrowed to one pool size as {@code <operation>.<poolSize>.minOpsPerSec}.
+ */
+public class SelectorThresholds {
+
+    private final Properties limits;
+
+    private SelectorThresholds(Properties limits) {
+        this.limits = limits;
+    }
+
+    public static SelectorThresholds load(String path) throws IOException {
+        Properties limits = new Properties();
+        try (InputStream in = new FileInputStream(path)) {
+            limits.load(in);
+        }
+        return new SelectorThresholds(limits);
+    }
+
+    /**
+     * @return human readable violations, empty if the result is within limits
+     */
+    public List<String> check(SelectorBenchmark.Result result) {
+        List<String> violations = new ArrayList<>();
+
+        Double minOps = lookup(result, "minOpsPerSec");
+        if (minOps != null && result.opsPerSec < minOps) {
+            violations.add(String.format("%s: %.0f ops/s < %.0f", result.label(), result.opsPerSec, minOps));
+        }
+
+        Double maxBytes = lookup(result, "maxBytesPerOp");
+        if (maxBytes != null && result.bytesPerOp > maxBytes) {
+            violations.add(String.format("%s: %.1f B/op > %.1f", result.label(), result.bytesPerOp, maxBytes));
+        }
+        return violations;
+    }
+
+    private Double lookup(SelectorBenchmark.Result result, String metric) {
+        String value = limits.getProperty(result.operation.key + "." + result.poolSize + "." + metric);
+        if (value == null) value = limits.getProperty(result.operation.key + "." + metric);
+        return value == null ? null : Double.valueOf(value.trim());
+    }
+}
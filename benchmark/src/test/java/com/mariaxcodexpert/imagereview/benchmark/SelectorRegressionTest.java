@@ -0,0 +1,30 @@
+package com.mariaxcodexpert.imagereview.benchmark;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fails the build when a selector change regresses throughput or allocations
+ * past the limits in selector-thresholds.properties.
+ */
+public class SelectorRegressionTest {
+
+    @Test
+    public void selectorStaysWithinThresholds() throws Exception {
+        SelectorThresholds thresholds = SelectorThresholds.load(
+                System.getProperty("selector.thresholds", "selector-thresholds.properties"));
+
+        List<SelectorBenchmark.Result> results = new SelectorBenchmark(2, 3)
+                .runMatrix(SelectorBenchmark.QUICK_POOL_SIZES, SelectorBenchmark.QUICK_SKIP_RATIOS);
+
+        List<String> violations = new ArrayList<>();
+        for (SelectorBenchmark.Result result : results) {
+            violations.addAll(thresholds.check(result));
+        }
+        assertTrue("Selector regressed:\n" + String.join("\n", violations), violations.isEmpty());
+    }
+}
@@ -0,0 +1,283 @@
+package com.mariaxcodexpert.imagereview.migration;
+
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Moves legacy {@code users/{uid}/images/{imageId}/image} Base64 payloads into Storage
+ * at {@code images/{uid}/{imageId}} and rewrites the node to the app's current layout
+ * (storagePath, sizeBytes, width, height), removing the Base64 string in the same update.
+ * Migrated images, and images whose {@code imageIndex/{imageId}} review-queue entry is
+ * missing, get that entry written child by child, with the node's renditions; the
+ * review count is only seeded when the entry has none, so live increments from the app
+ * are never overwritten. Images without aggregate {@code stats}
+ * get them computed from their ratings. Every existing review is also copied into the
+ * reviewer's {@code users/{reviewer}/interacted/{imageId}} index.
+ *
+ * User keys and each user's image ids come from shallow listings ({@link ShallowLister}),
+ * and image nodes are read one at a time, so memory is bounded by one image node plus
+ * the key lists, not by the size of a user. Users are processed in key order, a page at
+ * a time. Each payload is decoded once and dropped right after its upload. The
+ * checkpoint is saved after every page with the images that failed; every run retries
+ * those first. Re-running a node is harmless because the Storage object is overwritten
+ * and the node update is idempotent.
+ */
+public class LegacyImageMigrator {
+
+    private static final Logger LOG = Logger.getLogger("LegacyImageMigrator");
+    private static final long QUERY_TIMEOUT_SECONDS = 60;
+
+    // Node layout; must match ImageNode in :app
+    static final String IMAGES = "images";
+    static final String STORAGE_PATH = "storagePath";
+    static final String SIZE_BYTES = "sizeBytes";
+    static final String WIDTH = "width";
+    static final String HEIGHT = "height";
+    static final String LEGACY_IMAGE = "image";
+    static final String TIMESTAMP = "timestamp";
+    static final String REVIEWS = "reviews";
+    static final String RENDITIONS = "renditions";
+    // Aggregate layout; must match ReviewStats in :app
+    static final String STATS = "stats";
+    static final String STATS_REVIEW_COUNT = "reviewCount";
+    static final String STATS_RATING_SUM = "ratingSum";
+    static final String STATS_AVG_RATING = "avgRating";
+    // Per-user interaction index; must match InteractionIndex in :app
+    static final String INTERACTED = "interacted";
+    // Index layout; must match ImageIndex in :app
+    static final String INDEX = "imageIndex";
+    static final String INDEX_UID = "uid";
+    static final String INDEX_REVIEW_COUNT = "reviewCount";
+
+    private final DatabaseReference usersRef;
+    private final DatabaseReference rootRef; // parent of users, holds the index
+    private final ShallowLister lister;
+    private final Storage storage;
+    private final String bucket;
+    private final MigrationCheckpoint checkpoint;
+    private final int usersPerPage;
+
+    public LegacyImageMigrator(DatabaseReference usersRef, ShallowLister lister, Storage storage, String bucket,
+                               MigrationCheckpoint checkpoint, int usersPerPage) {
+        this.usersRef = usersRef;
+        this.rootRef = usersRef.getParent();
+        this.lister = lister;
+        this.storage = storage;
+        this.bucket = bucket;
+        this.checkpoint = checkpoint;
+        this.usersPerPage = usersPerPage;
+    }
+
+    /**
+     * Storage object for an image; must match ImageNode.storagePath in :app
+     */
+    static String storagePath(String uid, String imageId) {
+        return "images/" + uid + "/" + imageId;
+    }
+
+    /**
+     * Retries the images that failed in earlier runs, then processes up to maxPages
+     * pages of users, saving the checkpoint after each.
+     *
+     * @return true once every user has been processed and no failed image is left
+     */
+    public boolean run(int maxPages) throws IOException, InterruptedException {
+        retryFailed();
+        if (checkpoint.finished) return checkpoint.isFinished();
+
+        List<String> userKeys = lister.childKeys(usersRef);
+        int next = 0;
+        if (checkpoint.lastUserKey != null) {
+            while (next < userKeys.size() && userKeys.get(next).compareTo(checkpoint.lastUserKey) <= 0) next++;
+        }
+        for (int page = 0; page < maxPages && !checkpoint.finished; page++) {
+            int end = Math.min(next + usersPerPage, userKeys.size());
+            for (; next < end; next++) {
+                migrateUser(userKeys.get(next));
+                checkpoint.lastUserKey = userKeys.get(next);
+            }
+            checkpoint.finished = next == userKeys.size();
+            checkpoint.save();
+            LOG.info("page done: " + checkpoint);
+        }
+        return checkpoint.isFinished();
+    }
+
+    private void retryFailed() throws IOException {
+        if (checkpoint.failed.isEmpty()) return;
+        for (String image : new ArrayList<>(checkpoint.failed)) {
+            int slash = image.indexOf('/'); // keys never contain '/'
+            checkpoint.failed.remove(image);
+            migrateImage(image.substring(0, slash), image.substring(slash + 1));
+        }
+        checkpoint.save();
+        LOG.info("retries done: " + checkpoint);
+    }
+
+    private void migrateUser(String uid) throws IOException {
+        for (String imageId : lister.childKeys(usersRef.child(uid).child(IMAGES))) {
+            migrateImage(uid, imageId);
+        }
+    }
+
+    /**
+     * Reads and migrates one image node, recording the outcome in the checkpoint
+     */
+    private void migrateImage(String uid, String imageId) {
+        try {
+            DataSnapshot imageSnap = fetch(usersRef.child(uid).child(IMAGES).child(imageId), "image " + imageId);
+            if (!imageSnap.exists()) return; // deleted since it was listed
+            if (migrateImage(uid, imageSnap)) checkpoint.migrated++;
+            else checkpoint.alreadyDone++;
+        } catch (Exception e) {
+            checkpoint.failed.add(uid + "/" + imageId);
+            LOG.log(Level.WARNING, "failed " + uid + "/" + imageId, e);
+        }
+    }
+
+    /**
+     * @return false if the node had no legacy payload (its index entry is still written)
+     */
+    private boolean migrateImage(String uid, DataSnapshot imageSnap)
+            throws InterruptedException, ExecutionException, IOException {
+        String imageId = imageSnap.getKey();
+        String nodePath = "users/" + uid + "/" + IMAGES + "/" + imageId + "/";
+        String base64 = imageSnap.child(LEGACY_IMAGE).getValue(String.class);
+        boolean legacy = base64 != null && !base64.isEmpty();
+
+        String path = imageSnap.child(STORAGE_PATH).getValue(String.class);
+        Long size = imageSnap.child(SIZE_BYTES).getValue(Long.class);
+        Map<String, Object> update = new HashMap<>();
+        if (legacy) {
+            byte[] bytes = Base64.getMimeDecoder().decode(base64); // the app wrote Base64.DEFAULT, with line breaks
+            ImageInfo info = ImageInfo.probe(bytes);
+            path = storagePath(uid, imageId);
+            size = (long) bytes.length;
+            storage.create(BlobInfo.newBuilder(bucket, path).setContentType(info.contentType).build(), bytes);
+
+            update.put(nodePath + STORAGE_PATH, path);
+            update.put(nodePath + SIZE_BYTES, size);
+            update.put(nodePath + WIDTH, info.width);
+            update.put(nodePath + HEIGHT, info.height);
+            update.put(nodePath + LEGACY_IMAGE, null);
+        }
+        if (path == null) return false; // no payload anywhere, nothing to index
+
+        if (!imageSnap.hasChild(STATS)) {
+            long count = 0;
+            long sum = 0;
+            for (DataSnapshot review : imageSnap.child(REVIEWS).getChildren()) {
+                Long rating = review.child("rating").getValue(Long.class);
+                if (rating == null) continue;
+                count++;
+                sum += rating;
+            }
+            update.put(nodePath + STATS + "/" + STATS_REVIEW_COUNT, count);
+            update.put(nodePath + STATS + "/" + STATS_RATING_SUM, sum);
+            update.put(nodePath + STATS + "/" + STATS_AVG_RATING, count > 0 ? (double) sum / count : 0.0);
+        }
+
+        for (DataSnapshot review : imageSnap.child(REVIEWS).getChildren()) {
+            update.put("users/" + review.getKey() + "/" + INTERACTED + "/" + imageId, ServerValue.TIMESTAMP);
+        }
+
+        DataSnapshot indexEntry = fetch(rootRef.child(INDEX).child(imageId), "index entry " + imageId);
+        if (legacy || !indexEntry.hasChild(INDEX_UID)) {
+            // Child paths, not the whole entry: whatever else the entry holds stays
+            String index = INDEX + "/" + imageId + "/";
+            update.put(index + INDEX_UID, uid);
+            update.put(index + STORAGE_PATH, path);
+            update.put(index + SIZE_BYTES, size != null ? size : 0L);
+            update.put(index + TIMESTAMP, imageSnap.child(TIMESTAMP).getValue(Long.class));
+            if (imageSnap.hasChild(RENDITIONS)) update.put(index + RENDITIONS, imageSnap.child(RENDITIONS).getValue());
+            if (!indexEntry.hasChild(INDEX_REVIEW_COUNT)) {
+                update.put(index + INDEX_REVIEW_COUNT, imageSnap.child(REVIEWS).getChildrenCount());
+            }
+        }
+
+        // Node rewrite and index entry land together
+        if (!update.isEmpty()) rootRef.updateChildrenAsync(update).get();
+        return legacy;
+    }
+
+    /**
+     * One read of a query or location, with the query timeout
+     */
+    private static DataSnapshot fetch(Query query, String what) throws IOException, InterruptedException {
+        CompletableFuture<DataSnapshot> result = new CompletableFuture<>();
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result.complete(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                result.completeExceptionally(error.toException());
+            }
+        });
+        try {
+            return result.get(QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException(what + " failed", e);
+        }
+    }
+
+    /**
+     * Format and dimensions read from the image header, without decoding pixels
+     */
+    static class ImageInfo {
+        final String contentType;
+        final int width;
+        final int height;
+
+        ImageInfo(String contentType, int width, int height) {
+            this.contentType = contentType;
+            this.width = width;
+            this.height = height;
+        }
+
+        static ImageInfo probe(byte[] bytes) throws IOException {
+            try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+                Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+                if (!readers.hasNext()) {
+                    return new ImageInfo("application/octet-stream", 0, 0); // e.g. WebP; the app decodes it anyway
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    return new ImageInfo("image/" + reader.getFormatName().toLowerCase(Locale.ROOT),
+                            reader.getWidth(0), reader.getHeight(0));
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+    }
+}
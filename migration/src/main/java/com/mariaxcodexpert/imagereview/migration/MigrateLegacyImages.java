@@ -0,0 +1,116 @@
+package com.mariaxcodexpert.imagereview.migration;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Command-line entry point for {@link LegacyImageMigrator}.
+ *
+ * Uses Application Default Credentials against production. When the emulator
+ * env vars set by {@code firebase emulators:exec} are present
+ * (FIREBASE_DATABASE_EMULATOR_HOST, STORAGE_EMULATOR_HOST) it talks to the
+ * local emulators instead and needs no credentials.
+ *
+ * Options: --checkpoint path, --users-per-page n, --restart, --database-url url,
+ * --bucket name, --project id
+ */
+public class MigrateLegacyImages {
+
+    static final String PROJECT_ID = "imagereview397";
+    static final String DATABASE_URL = "https://imagereview397-default-rtdb.firebaseio.com/";
+    static final String BUCKET = "imagereview397.firebasestorage.app";
+    private static final int DEFAULT_USERS_PER_PAGE = 20;
+
+    public static void main(String[] args) throws Exception {
+        String checkpointPath = "migration.checkpoint";
+        int usersPerPage = DEFAULT_USERS_PER_PAGE;
+        boolean restart = false;
+        String databaseUrl = DATABASE_URL;
+        String bucket = BUCKET;
+        String projectId = PROJECT_ID;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--checkpoint": checkpointPath = args[++i]; break;
+                case "--users-per-page": usersPerPage = Integer.parseInt(args[++i]); break;
+                case "--restart": restart = true; break;
+                case "--database-url": databaseUrl = args[++i]; break;
+                case "--bucket": bucket = args[++i]; break;
+                case "--project": projectId = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        MigrationCheckpoint checkpoint = restart
+                ? new MigrationCheckpoint(Paths.get(checkpointPath))
+                : MigrationCheckpoint.load(Paths.get(checkpointPath));
+        if (checkpoint.isFinished()) {
+            System.out.println("Already finished: " + checkpoint + " (use --restart to run again)");
+            return;
+        }
+
+        FirebaseApp app = initApp(projectId, databaseUrl, "migration");
+        LegacyImageMigrator migrator = new LegacyImageMigrator(
+                FirebaseDatabase.getInstance(app).getReference("users"),
+                new ShallowLister(databaseUrl, credentials()),
+                storage(projectId), bucket, checkpoint, usersPerPage);
+        migrator.run(Integer.MAX_VALUE);
+        System.out.println("Done: " + checkpoint);
+        app.delete();
+    }
+
+    static boolean usingEmulators() {
+        return System.getenv("FIREBASE_DATABASE_EMULATOR_HOST") != null && storageEmulatorHost() != null;
+    }
+
+    /**
+     * Scoped for the database REST API, which {@link ShallowLister} calls directly
+     */
+    static GoogleCredentials credentials() throws IOException {
+        if (usingEmulators()) return GoogleCredentials.create(new AccessToken("owner", null)); // the emulators accept any token
+        return GoogleCredentials.getApplicationDefault().createScoped(Arrays.asList(
+                "https://www.googleapis.com/auth/firebase.database",
+                "https://www.googleapis.com/auth/userinfo.email"));
+    }
+
+    static FirebaseApp initApp(String projectId, String databaseUrl, String name) throws IOException {
+        FirebaseOptions options = FirebaseOptions.builder()
+                .setCredentials(credentials())
+                .setProjectId(projectId)
+                .setDatabaseUrl(databaseUrl) // rewritten to the emulator by the Admin SDK when its env var is set
+                .build();
+        return FirebaseApp.initializeApp(options, name);
+    }
+
+    static Storage storage(String projectId) throws IOException {
+        String emulator = storageEmulatorHost();
+        if (emulator != null) {
+            return StorageOptions.newBuilder()
+                    .setProjectId(projectId)
+                    .setHost(emulator.startsWith("http") ? emulator : "http://" + emulator)
+                    .setCredentials(NoCredentials.getInstance())
+                    .build()
+                    .getService();
+        }
+        return StorageOptions.newBuilder()
+                .setProjectId(projectId)
+                .setCredentials(GoogleCredentials.getApplicationDefault())
+                .build()
+                .getService();
+    }
+
+    private static String storageEmulatorHost() {
+        String host = System.getenv("STORAGE_EMULATOR_HOST");
+        return host != null ? host : System.getenv("FIREBASE_STORAGE_EMULATOR_HOST");
+    }
+}
@@ -0,0 +1,100 @@
+package com.mariaxcodexpert.imagereview.migration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Progress of a migration run: the last fully processed user key, running totals and
+ * the images that failed, as {@code uid/imageId}, so a later run retries them even
+ * though the cursor has moved past their user. Saved after every page with temp file +
+ * atomic rename, so an interrupted run restarts from the last finished page instead of
+ * from the beginning.
+ */
+public class MigrationCheckpoint {
+
+    private static final String LAST_USER_KEY = "lastUserKey";
+    private static final String MIGRATED = "migrated";
+    private static final String ALREADY_DONE = "alreadyDone";
+    private static final String FAILED = "failed.";
+    private static final String FINISHED = "finished";
+
+    private final Path file;
+
+    String lastUserKey;  // null before the first page
+    long migrated;       // legacy nodes moved to Storage
+    long alreadyDone;    // nodes that needed no work
+    final Set<String> failed = new LinkedHashSet<>(); // uid/imageId left untouched after an error
+    boolean finished;    // every user page processed; failed images may still be pending
+
+    public MigrationCheckpoint(Path file) {
+        this.file = file;
+    }
+
+    public static MigrationCheckpoint load(Path file) throws IOException {
+        MigrationCheckpoint checkpoint = new MigrationCheckpoint(file);
+        if (!Files.exists(file)) return checkpoint;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        checkpoint.lastUserKey = props.getProperty(LAST_USER_KEY);
+        checkpoint.migrated = Long.parseLong(props.getProperty(MIGRATED, "0"));
+        checkpoint.alreadyDone = Long.parseLong(props.getProperty(ALREADY_DONE, "0"));
+        for (int i = 0; props.containsKey(FAILED + i); i++) checkpoint.failed.add(props.getProperty(FAILED + i));
+        checkpoint.finished = Boolean.parseBoolean(props.getProperty(FINISHED, "false"));
+        return checkpoint;
+    }
+
+    public void save() throws IOException {
+        Properties props = new Properties();
+        if (lastUserKey != null) props.setProperty(LAST_USER_KEY, lastUserKey);
+        props.setProperty(MIGRATED, String.valueOf(migrated));
+        props.setProperty(ALREADY_DONE, String.valueOf(alreadyDone));
+        int i = 0;
+        for (String image : failed) props.setProperty(FAILED + i++, image);
+        props.setProperty(FINISHED, String.valueOf(finished));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, "legacy image migration");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public String getLastUserKey() {
+        return lastUserKey;
+    }
+
+    public long getMigrated() {
+        return migrated;
+    }
+
+    public long getAlreadyDone() {
+        return alreadyDone;
+    }
+
+    public long getFailed() {
+        return failed.size();
+    }
+
+    /**
+     * True once every page is done and no failed image is left to retry
+     */
+    public boolean isFinished() {
+        return finished && failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "lastUserKey=" + lastUserKey + " migrated=" + migrated + " alreadyDone=" + alreadyDone
+                + " failed=" + failed.size() + (isFinished() ? " (finished)" : "");
+    }
+}
@@ -0,0 +1,85 @@
+package com.mariaxcodexpert.imagereview.migration;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.database.DatabaseReference;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Child keys of a database location without their subtrees, through the REST API's
+ * {@code shallow=true}. The Admin SDK has no shallow reads: any query on {@code users}
+ * downloads whole users, Base64 payloads included.
+ */
+class ShallowLister {
+
+    private static final int TIMEOUT_MILLIS = 60_000;
+
+    private final String baseUrl;   // scheme and host, no trailing slash
+    private final String namespace; // ns parameter for the emulator, null in production
+    private final GoogleCredentials credentials;
+
+    /**
+     * @param databaseUrl the app's database URL; replaced by FIREBASE_DATABASE_EMULATOR_HOST when set
+     */
+    ShallowLister(String databaseUrl, GoogleCredentials credentials) {
+        URI uri = URI.create(databaseUrl);
+        String emulator = System.getenv("FIREBASE_DATABASE_EMULATOR_HOST");
+        if (emulator != null) {
+            this.baseUrl = "http://" + emulator;
+            this.namespace = uri.getHost().substring(0, uri.getHost().indexOf('.'));
+        } else {
+            this.baseUrl = uri.getScheme() + "://" + uri.getHost();
+            this.namespace = null;
+        }
+        this.credentials = credentials;
+    }
+
+    /**
+     * Keys of the location's children in String order; empty if it has none
+     */
+    List<String> childKeys(DatabaseReference ref) throws IOException {
+        String query = "?shallow=true" + (namespace != null ? "&ns=" + encode(namespace) : "");
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path(ref) + ".json" + query)
+                .openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        credentials.refreshIfExpired();
+        connection.setRequestProperty("Authorization", "Bearer " + credentials.getAccessToken().getTokenValue());
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("shallow read of " + ref + " failed: HTTP " + connection.getResponseCode());
+            }
+            try (Reader in = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+                Map<?, ?> children = new Gson().fromJson(in, Map.class); // null for an empty location
+                if (children == null) return Collections.emptyList();
+                List<String> keys = new ArrayList<>(children.size());
+                for (Object key : children.keySet()) keys.add((String) key);
+                Collections.sort(keys);
+                return keys;
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String path(DatabaseReference ref) throws IOException {
+        if (ref.getParent() == null) return "";
+        return path(ref.getParent()) + "/" + encode(ref.getKey());
+    }
+
+    private static String encode(String key) throws IOException {
+        return URLEncoder.encode(key, StandardCharsets.UTF_8.name()).replace("+", "%20");
+    }
+}
@@ -0,0 +1,205 @@
+package com.mariaxcodexpert.imagereview.migration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BucketInfo;
+import com.google.cloud.storage.Storage;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Runs the migrator against the local Database and Storage emulators, interrupting
+ * it after one page and resuming from the saved checkpoint.
+ *
+ * firebase emulators:exec --only database,storage "./gradlew :migration:test"
+ */
+public class LegacyImageMigratorEmulatorTest {
+
+    private static final int USERS = 5;
+    private static final int IMAGES_PER_USER = 3;
+
+    private FirebaseApp app;
+    private DatabaseReference usersRef;
+    private Storage storage;
+    private Path checkpointFile;
+    private byte[] png;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("Firebase emulators not running", MigrateLegacyImages.usingEmulators());
+
+        app = MigrateLegacyImages.initApp(MigrateLegacyImages.PROJECT_ID, MigrateLegacyImages.DATABASE_URL,
+                "migration-test-" + System.nanoTime());
+        usersRef = FirebaseDatabase.getInstance(app).getReference("migrationTest").push().child("users");
+        storage = MigrateLegacyImages.storage(MigrateLegacyImages.PROJECT_ID);
+        if (storage.get(MigrateLegacyImages.BUCKET) == null) {
+            storage.create(BucketInfo.of(MigrateLegacyImages.BUCKET));
+        }
+        checkpointFile = Files.createTempFile("migration", ".checkpoint");
+        Files.delete(checkpointFile);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB), "png", out);
+        png = out.toByteArray();
+
+        Map<String, Object> users = new HashMap<>();
+        String base64 = Base64.getMimeEncoder().encodeToString(png);
+        for (int u = 0; u < USERS; u++) {
+            for (int i = 0; i < IMAGES_PER_USER; i++) {
+                users.put("user" + u + "/images/img" + u + "_" + i + "/image", base64);
+                users.put("user" + u + "/images/img" + u + "_" + i + "/timestamp", 1000L + i);
+            }
+        }
+        users.put("user1/images/img1_1/reviews/userA/rating", 4);
+        users.put("user1/images/img1_1/reviews/userB/skipped", true);
+        // Already in the new layout, must be left alone
+        users.put("user0/images/img0_0/image", null);
+        users.put("user0/images/img0_0/storagePath", "images/user0/img0_0");
+        usersRef.updateChildrenAsync(users).get(30, TimeUnit.SECONDS);
+
+        Map<String, Object> index = new HashMap<>();
+        // Written by the app with renditions and live review increments, must survive
+        index.put("img0_0/uid", "user0");
+        index.put("img0_0/storagePath", "images/user0/img0_0");
+        index.put("img0_0/reviewCount", 7);
+        index.put("img0_0/renditions/thumb/storagePath", "images/user0/img0_0_thumb");
+        // A review landed on a legacy image before it was indexed
+        index.put("img2_0/reviewCount", 3);
+        usersRef.getParent().child(LegacyImageMigrator.INDEX).updateChildrenAsync(index).get(30, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (app == null) return;
+        usersRef.getParent().removeValueAsync().get(30, TimeUnit.SECONDS);
+        app.delete();
+        Files.deleteIfExists(checkpointFile);
+    }
+
+    @Test
+    public void resumesFromCheckpointAndMigratesEveryLegacyNode() throws Exception {
+        MigrationCheckpoint first = MigrationCheckpoint.load(checkpointFile);
+        assertFalse(migrator(first).run(1));
+        assertEquals("user1", MigrationCheckpoint.load(checkpointFile).getLastUserKey());
+
+        // A fresh process picks up after the saved page
+        MigrationCheckpoint resumed = MigrationCheckpoint.load(checkpointFile);
+        assertTrue(migrator(resumed).run(Integer.MAX_VALUE));
+
+        MigrationCheckpoint done = MigrationCheckpoint.load(checkpointFile);
+        assertTrue(done.isFinished());
+        assertEquals(USERS * IMAGES_PER_USER - 1, done.getMigrated());
+        assertEquals(1, done.getAlreadyDone());
+        assertEquals(0, done.getFailed());
+
+        DataSnapshot snapshot = read(usersRef);
+        assertTrue(snapshot.child("userA/" + LegacyImageMigrator.INTERACTED + "/img1_1").exists());
+        assertTrue(snapshot.child("userB/" + LegacyImageMigrator.INTERACTED + "/img1_1").exists());
+        DataSnapshot index = read(usersRef.getParent().child(LegacyImageMigrator.INDEX));
+        assertEquals(USERS * IMAGES_PER_USER, index.getChildrenCount());
+        DataSnapshot kept = index.child("img0_0");
+        assertEquals(7L, (long) kept.child(LegacyImageMigrator.INDEX_REVIEW_COUNT).getValue(Long.class));
+        assertEquals("images/user0/img0_0_thumb",
+                kept.child(LegacyImageMigrator.RENDITIONS + "/thumb/storagePath").getValue(String.class));
+        for (int u = 0; u < USERS; u++) {
+            for (int i = 0; i < IMAGES_PER_USER; i++) {
+                if (u == 0 && i == 0) continue;
+                DataSnapshot node = snapshot.child("user" + u + "/images/img" + u + "_" + i);
+                String path = "images/user" + u + "/img" + u + "_" + i;
+                assertFalse(node.hasChild(LegacyImageMigrator.LEGACY_IMAGE));
+                assertEquals(path, node.child(LegacyImageMigrator.STORAGE_PATH).getValue(String.class));
+                assertEquals((long) png.length, (long) node.child(LegacyImageMigrator.SIZE_BYTES).getValue(Long.class));
+                assertEquals(4L, (long) node.child(LegacyImageMigrator.WIDTH).getValue(Long.class));
+                assertEquals(3L, (long) node.child(LegacyImageMigrator.HEIGHT).getValue(Long.class));
+                assertEquals(1000L + i, (long) node.child("timestamp").getValue(Long.class));
+
+                DataSnapshot stats = node.child(LegacyImageMigrator.STATS);
+                boolean rated = u == 1 && i == 1;
+                assertEquals(rated ? 1L : 0L, (long) stats.child(LegacyImageMigrator.STATS_REVIEW_COUNT).getValue(Long.class));
+                assertEquals(rated ? 4L : 0L, (long) stats.child(LegacyImageMigrator.STATS_RATING_SUM).getValue(Long.class));
+
+                DataSnapshot entry = index.child("img" + u + "_" + i);
+                assertEquals("user" + u, entry.child(LegacyImageMigrator.INDEX_UID).getValue(String.class));
+                assertEquals(path, entry.child(LegacyImageMigrator.STORAGE_PATH).getValue(String.class));
+                long reviewCount = rated ? 2L : u == 2 && i == 0 ? 3L : 0L;
+                assertEquals(reviewCount, (long) entry.child(LegacyImageMigrator.INDEX_REVIEW_COUNT).getValue(Long.class));
+
+                Blob blob = storage.get(MigrateLegacyImages.BUCKET, path);
+                assertNotNull(path, blob);
+                assertEquals("image/png", blob.getContentType());
+                assertArrayEquals(png, blob.getContent());
+            }
+        }
+    }
+
+    @Test
+    public void failedImagesAreRetriedOnTheNextRun() throws Exception {
+        usersRef.child("user3/images/img3_1/image").setValueAsync("not base64!").get(30, TimeUnit.SECONDS);
+
+        MigrationCheckpoint checkpoint = MigrationCheckpoint.load(checkpointFile);
+        assertFalse(migrator(checkpoint).run(Integer.MAX_VALUE));
+        MigrationCheckpoint saved = MigrationCheckpoint.load(checkpointFile);
+        assertEquals(1, saved.getFailed());
+        assertTrue(saved.failed.contains("user3/img3_1"));
+        assertFalse(saved.isFinished());
+
+        // Fixed after the cursor moved past user3: the next run picks it up from the checkpoint
+        usersRef.child("user3/images/img3_1/image").setValueAsync(Base64.getMimeEncoder().encodeToString(png))
+                .get(30, TimeUnit.SECONDS);
+        assertTrue(migrator(saved).run(Integer.MAX_VALUE));
+
+        MigrationCheckpoint done = MigrationCheckpoint.load(checkpointFile);
+        assertEquals(0, done.getFailed());
+        assertEquals(USERS * IMAGES_PER_USER - 1, done.getMigrated());
+        assertEquals("images/user3/img3_1",
+                read(usersRef.child("user3/images/img3_1/" + LegacyImageMigrator.STORAGE_PATH)).getValue(String.class));
+    }
+
+    private LegacyImageMigrator migrator(MigrationCheckpoint checkpoint) throws Exception {
+        return new LegacyImageMigrator(usersRef,
+                new ShallowLister(MigrateLegacyImages.DATABASE_URL, MigrateLegacyImages.credentials()),
+                storage, MigrateLegacyImages.BUCKET, checkpoint, 2);
+    }
+
+    private static DataSnapshot read(DatabaseReference ref) throws Exception {
+        CompletableFuture<DataSnapshot> result = new CompletableFuture<>();
+        ref.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                result.complete(snapshot);
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                result.completeExceptionally(error.toException());
+            }
+        });
+        return result.get(30, TimeUnit.SECONDS);
+    }
+}